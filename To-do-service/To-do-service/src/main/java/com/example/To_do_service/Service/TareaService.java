@@ -1,10 +1,17 @@
 package com.example.To_do_service.Service;
 
+import com.example.To_do_service.dto.EstadisticasTareas;
+import com.example.To_do_service.dto.OperacionTarea;
+import com.example.To_do_service.dto.ResultadoLote;
+import com.example.To_do_service.dto.TareaPagina;
+import com.example.To_do_service.dto.TareaResumen;
 import com.example.To_do_service.model.Tarea;
 import com.example.To_do_service.model.TaskStatus;
+import com.example.To_do_service.model.VersionTareas;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 
 public interface TareaService {
@@ -23,6 +30,23 @@ public interface TareaService {
 
 
     // Nuevos métodos
-    List<Tarea> obtenerTareasPorUsuario(String username);
-    List<Tarea> obtenerTareasPorUsuarioYEstado(String username, TaskStatus status);
+    List<TareaResumen> obtenerTareasPorUsuario(String username);
+    List<TareaResumen> obtenerTareasPorUsuarioYEstado(String username, TaskStatus status);
+
+    EstadisticasTareas obtenerEstadisticasPorUsuario(String username);
+
+    // Versión actual de las tareas del usuario (versión 0 si nunca ha escrito)
+    VersionTareas obtenerVersionTareas(String username);
+
+    TareaPagina obtenerTareasPorUsuarioPaginadas(String username, Long after, int limit);
+
+    void exportarTareasPorUsuario(String username, Consumer<Tarea> consumidor);
+
+    // Actualiza/elimina solo si la tarea pertenece al usuario (vacío/false si no existe o no es suya)
+    Optional<Tarea> actualizarTareaDeUsuario(Long id, String username, Tarea tareaDetalles);
+
+    boolean eliminarTareaDeUsuario(Long id, String username);
+
+    // Ejecuta todas las operaciones en una sola transacción; si alguna falla no se aplica ninguna
+    ResultadoLote ejecutarLote(String username, List<OperacionTarea> operaciones);
 }
@@ -1,25 +1,74 @@
 package com.example.To_do_service.ServiceImpl;
 
 import com.example.To_do_service.Service.TareaService;
+import com.example.To_do_service.config.CacheConfig;
+import com.example.To_do_service.dto.ConteoEstado;
+import com.example.To_do_service.dto.EstadisticasTareas;
+import com.example.To_do_service.dto.OperacionTarea;
+import com.example.To_do_service.dto.ResultadoLote;
+import com.example.To_do_service.dto.TareaPagina;
+import com.example.To_do_service.dto.TareaResumen;
+import com.example.To_do_service.eventos.EventoTarea;
+import com.example.To_do_service.exception.TareaNoEncontradaException;
 import com.example.To_do_service.model.Tarea;
 import com.example.To_do_service.model.TaskStatus;
+import com.example.To_do_service.model.VersionTareas;
 import com.example.To_do_service.repository.TareaRepository;
+import com.example.To_do_service.repository.VersionTareasRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 @Service
 @RequiredArgsConstructor
 public class TareaServiceImpl implements TareaService {
 
+    private static final int LIMITE_MAXIMO_PAGINA = 500;
+
     private final TareaRepository tareaRepository;
+    private final VersionTareasRepository versionTareasRepository;
+    private final EntityManager entityManager;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Entrada de la caché de listas: guarda la versión de las tareas con la que se leyó,
+     * así nunca se sirve una lista más antigua que la versión usada como ETag.
+     */
+    private record TareasCacheadas(long version, List<TareaResumen> tareas) {
+    }
 
     @Override
+    @Transactional
     public Tarea crearTarea(Tarea tarea) {
-        return tareaRepository.save(tarea);
+        Tarea creada = tareaRepository.save(tarea);
+        incrementarVersion(creada.getUsername());
+        // Solo cambian la lista completa del usuario y la de su estado
+        evict(CacheConfig.TAREAS_POR_USUARIO, creada.getUsername());
+        evict(CacheConfig.TAREAS_POR_USUARIO_Y_ESTADO, claveEstado(creada.getUsername(), creada.getStatus()));
+        publicar(EventoTarea.Tipo.CREADA, creada.getId(), creada.getUsername(), creada.getStatus());
+        return creada;
     }
 
     @Override
@@ -38,6 +87,7 @@ public class TareaServiceImpl implements TareaService {
     }
 
     @Override
+    @Transactional
     public Tarea actualizarTarea(Long id, Tarea tareaDetalles) {
         Tarea tarea = tareaRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Tarea no encontrada con id: " + id));
@@ -46,24 +96,244 @@ public class TareaServiceImpl implements TareaService {
         tarea.setDescription(tareaDetalles.getDescription());
         tarea.setStatus(tareaDetalles.getStatus());
 
-        return tareaRepository.save(tarea);
+        Tarea actualizada = tareaRepository.save(tarea);
+        registrarCambio(actualizada.getUsername());
+        publicar(EventoTarea.Tipo.ACTUALIZADA, id, actualizada.getUsername(), actualizada.getStatus());
+        return actualizada;
     }
 
     @Override
+    @Transactional
     public void eliminarTarea(Long id) {
-        tareaRepository.deleteById(id);
+        tareaRepository.findById(id).ifPresent(tarea -> {
+            tareaRepository.delete(tarea);
+            registrarCambio(tarea.getUsername());
+            publicar(EventoTarea.Tipo.ELIMINADA, id, tarea.getUsername(), tarea.getStatus());
+        });
     }
 
 
     // Implementaciones existentes...
 
     @Override
-    public List<Tarea> obtenerTareasPorUsuario(String username) {
-        return tareaRepository.findByUsername(username);
+    @Transactional(readOnly = true)
+    public List<TareaResumen> obtenerTareasPorUsuario(String username) {
+        return leerConCache(CacheConfig.TAREAS_POR_USUARIO, username, username,
+                () -> tareaRepository.buscarResumenPorUsuario(username));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TareaResumen> obtenerTareasPorUsuarioYEstado(String username, TaskStatus status) {
+        return leerConCache(CacheConfig.TAREAS_POR_USUARIO_Y_ESTADO, username, claveEstado(username, status),
+                () -> tareaRepository.buscarResumenPorUsuarioYEstado(username, status));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public VersionTareas obtenerVersionTareas(String username) {
+        return versionTareasRepository.findById(username)
+                .orElseGet(() -> new VersionTareas(username, 0L, null));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EstadisticasTareas obtenerEstadisticasPorUsuario(String username) {
+        Map<TaskStatus, Long> porEstado = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            porEstado.put(status, 0L);
+        }
+
+        long total = 0;
+        for (ConteoEstado conteo : tareaRepository.contarPorEstado(username)) {
+            // status puede ser null en filas antiguas; solo cuentan para el total
+            if (conteo.status() != null) {
+                porEstado.put(conteo.status(), conteo.total());
+            }
+            total += conteo.total();
+        }
+        return new EstadisticasTareas(total, porEstado);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TareaPagina obtenerTareasPorUsuarioPaginadas(String username, Long after, int limit) {
+        int tamanio = Math.max(1, Math.min(limit, LIMITE_MAXIMO_PAGINA));
+        long cursor = after != null ? after : 0L;
+
+        // Pedimos una fila extra para saber si existe una página siguiente
+        List<TareaResumen> tareas = tareaRepository.buscarResumenPorUsuarioDesde(
+                username, cursor, PageRequest.of(0, tamanio + 1));
+
+        Long nextCursor = null;
+        if (tareas.size() > tamanio) {
+            tareas = tareas.subList(0, tamanio);
+            nextCursor = tareas.get(tamanio - 1).id();
+        }
+        return new TareaPagina(tareas, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportarTareasPorUsuario(String username, Consumer<Tarea> consumidor) {
+        try (Stream<Tarea> tareas = tareaRepository.streamByUsername(username)) {
+            tareas.forEach(tarea -> {
+                consumidor.accept(tarea);
+                // Sacamos la entidad del contexto de persistencia para que no crezca con cada fila
+                entityManager.detach(tarea);
+            });
+        }
+    }
+
+    @Override
+    @Transactional
+    public Optional<Tarea> actualizarTareaDeUsuario(Long id, String username, Tarea tareaDetalles) {
+        int filas = tareaRepository.actualizarPorIdYUsername(
+                id, username, tareaDetalles.getTitle(), tareaDetalles.getDescription(), tareaDetalles.getStatus());
+        if (filas == 0) {
+            return Optional.empty();
+        }
+        // No conocemos el estado anterior, así que invalidamos todas las listas del usuario
+        registrarCambio(username);
+        publicar(EventoTarea.Tipo.ACTUALIZADA, id, username, tareaDetalles.getStatus());
+
+        // PUT cuesta el UPDATE más una lectura por clave primaria de createdAt (aparte del outbox):
+        // no es una sola sentencia como DELETE. La lectura es deliberada para que la respuesta
+        // siga llevando createdAt; el resto de campos son los que acabamos de escribir.
+        return tareaRepository.buscarCreatedAtPorId(id)
+                .map(createdAt -> Tarea.builder()
+                        .id(id)
+                        .title(tareaDetalles.getTitle())
+                        .description(tareaDetalles.getDescription())
+                        .status(tareaDetalles.getStatus())
+                        .createdAt(createdAt)
+                        .username(username)
+                        .build());
+    }
+
+    @Override
+    @Transactional
+    public boolean eliminarTareaDeUsuario(Long id, String username) {
+        boolean eliminada = tareaRepository.eliminarPorIdYUsername(id, username) > 0;
+        if (eliminada) {
+            registrarCambio(username);
+            publicar(EventoTarea.Tipo.ELIMINADA, id, username, null);
+        }
+        return eliminada;
     }
 
     @Override
-    public List<Tarea> obtenerTareasPorUsuarioYEstado(String username, TaskStatus status) {
-        return tareaRepository.findByUsernameAndStatus(username, status);
+    @Transactional
+    public ResultadoLote ejecutarLote(String username, List<OperacionTarea> operaciones) {
+        List<Tarea> nuevas = new ArrayList<>();
+        List<OperacionTarea> actualizaciones = new ArrayList<>();
+        Set<Long> idsEliminar = new LinkedHashSet<>();
+
+        for (OperacionTarea op : operaciones) {
+            switch (op.getTipo()) {
+                case CREAR -> nuevas.add(Tarea.builder()
+                        .title(op.getTitle())
+                        .description(op.getDescription())
+                        .status(op.getStatus() != null ? op.getStatus() : TaskStatus.PENDING)
+                        .username(username)
+                        .build());
+                case ACTUALIZAR -> actualizaciones.add(op);
+                case ELIMINAR -> idsEliminar.add(op.getId());
+            }
+        }
+
+        // INSERT en lotes JDBC al hacer flush (los ids vienen del generador pooled)
+        List<Tarea> creadas = tareaRepository.saveAll(nuevas);
+
+        // Un único SELECT para todas las tareas a actualizar; los UPDATE salen en lote al hacer flush
+        List<Tarea> actualizadas = new ArrayList<>();
+        if (!actualizaciones.isEmpty()) {
+            Set<Long> ids = actualizaciones.stream().map(OperacionTarea::getId).collect(Collectors.toSet());
+            Map<Long, Tarea> propias = tareaRepository.findByUsernameAndIdIn(username, ids).stream()
+                    .collect(Collectors.toMap(Tarea::getId, Function.identity()));
+
+            for (OperacionTarea op : actualizaciones) {
+                Tarea tarea = propias.get(op.getId());
+                if (tarea == null) {
+                    throw new TareaNoEncontradaException("Tarea no encontrada o no autorizada: " + op.getId());
+                }
+                tarea.setTitle(op.getTitle());
+                tarea.setDescription(op.getDescription());
+                tarea.setStatus(op.getStatus());
+                actualizadas.add(tarea);
+            }
+        }
+
+        // Un único DELETE ... WHERE id IN (...) AND username = ?
+        int eliminadas = 0;
+        if (!idsEliminar.isEmpty()) {
+            eliminadas = tareaRepository.eliminarPorIdsYUsername(idsEliminar, username);
+            if (eliminadas != idsEliminar.size()) {
+                throw new TareaNoEncontradaException("Alguna tarea a eliminar no existe o no está autorizada");
+            }
+        }
+
+        registrarCambio(username);
+        creadas.forEach(t -> publicar(EventoTarea.Tipo.CREADA, t.getId(), username, t.getStatus()));
+        actualizadas.forEach(t -> publicar(EventoTarea.Tipo.ACTUALIZADA, t.getId(), username, t.getStatus()));
+        idsEliminar.forEach(id -> publicar(EventoTarea.Tipo.ELIMINADA, id, username, null));
+        return new ResultadoLote(creadas, actualizadas, eliminadas);
+    }
+
+    // Se entrega a los suscriptores SSE solo si la transacción se confirma (ver NotificadorEventosTareas)
+    private void publicar(EventoTarea.Tipo tipo, Long id, String username, TaskStatus status) {
+        if (username != null) {
+            eventPublisher.publishEvent(EventoTarea.de(tipo, id, username, status));
+        }
+    }
+
+    // Lee la versión y la lista en la misma transacción (mismo snapshot en InnoDB)
+    // y solo reutiliza la entrada de caché si corresponde a esa versión
+    private List<TareaResumen> leerConCache(String cacheName, String username, String clave,
+                                            Supplier<List<TareaResumen>> cargar) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null || clave == null) {
+            return List.copyOf(cargar.get());
+        }
+
+        long version = obtenerVersionTareas(username).getVersion();
+        TareasCacheadas cacheadas = cache.get(clave, TareasCacheadas.class);
+        if (cacheadas != null && cacheadas.version() == version) {
+            return cacheadas.tareas();
+        }
+
+        List<TareaResumen> tareas = List.copyOf(cargar.get());
+        cache.put(clave, new TareasCacheadas(version, tareas));
+        return tareas;
+    }
+
+    // Toda escritura sobre las tareas de un usuario: nueva versión + invalidación de sus listas
+    private void registrarCambio(String username) {
+        incrementarVersion(username);
+        invalidarCacheUsuario(username);
+    }
+
+    private void incrementarVersion(String username) {
+        if (username != null) {
+            versionTareasRepository.incrementar(username, LocalDateTime.now(ZoneOffset.UTC));
+        }
+    }
+
+    private void invalidarCacheUsuario(String username) {
+        evict(CacheConfig.TAREAS_POR_USUARIO, username);
+        for (TaskStatus status : TaskStatus.values()) {
+            evict(CacheConfig.TAREAS_POR_USUARIO_Y_ESTADO, claveEstado(username, status));
+        }
+    }
+
+    private void evict(String cacheName, String key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+
+    private static String claveEstado(String username, TaskStatus status) {
+        return username == null ? null : username + ":" + status;
     }
 }
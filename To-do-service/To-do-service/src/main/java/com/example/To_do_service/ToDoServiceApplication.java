@@ -2,10 +2,12 @@ package com.example.To_do_service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 
 
 @SpringBootApplication
+@EnableScheduling
 public class ToDoServiceApplication {
 
 	public static void main(String[] args) {
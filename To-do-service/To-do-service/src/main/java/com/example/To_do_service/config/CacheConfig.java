@@ -0,0 +1,27 @@
+package com.example.To_do_service.config;
+
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caché en memoria (Caffeine) de las listas de tareas por usuario.
+ * Tamaño, TTL y estadísticas se configuran en spring.cache.caffeine.spec;
+ * las métricas (cache.gets, cache.evictions...) se publican en /actuator/metrics.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String TAREAS_POR_USUARIO = "tareasPorUsuario";
+    public static final String TAREAS_POR_USUARIO_Y_ESTADO = "tareasPorUsuarioYEstado";
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> cacheManagerTransaccional() {
+        // Las invalidaciones dentro de una transacción se aplican tras el commit,
+        // así una lectura concurrente no vuelve a cachear datos sin confirmar
+        return cacheManager -> cacheManager.setTransactionAware(true);
+    }
+}
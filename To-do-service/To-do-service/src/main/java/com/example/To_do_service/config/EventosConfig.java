@@ -0,0 +1,28 @@
+package com.example.To_do_service.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Hilos que escriben en las conexiones SSE de GET /api/tareas/events (NotificadorEventosTareas).
+ * Gestionado por Spring: al parar el contexto se deja de aceptar trabajo y se cierran los hilos.
+ *
+ * defaultCandidate = false: solo se inyecta por su nombre, y el applicationTaskExecutor que
+ * Spring Boot configura (MVC asíncrono, StreamingResponseBody de /stream) no se retira por él.
+ */
+@Configuration
+public class EventosConfig {
+
+    public static final String ENVIOS_SSE = "enviosSseExecutor";
+
+    @Bean(name = ENVIOS_SSE, defaultCandidate = false)
+    public ThreadPoolTaskExecutor enviosSseExecutor(@Value("${tareas.eventos.hilos-envio:4}") int hilos) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setThreadNamePrefix("sse-envios-");
+        return executor;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.To_do_service.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+/**
+ * Verificación local de los JWT con las claves públicas de auth-service (JWKS).
+ *
+ * NimbusJwtDecoder descarga /.well-known/jwks.json, lo guarda en memoria y solo lo vuelve a
+ * pedir al caducar o cuando llega un token con un "kid" que no conoce (clave recién rotada).
+ * Comprueba firma RS256, exp y nbf; no llama a auth-service por petición.
+ */
+@Configuration
+public class JwtConfig {
+
+    // Resuelve http://auth-service/... por Eureka (JWKS y revocaciones)
+    @Bean
+    @LoadBalanced
+    public RestTemplate authServiceRestTemplate(RestTemplateBuilder builder) {
+        return builder
+                .connectTimeout(Duration.ofSeconds(2))
+                .readTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder(@Value("${jwt.jwks-uri}") String jwksUri, RestTemplate authServiceRestTemplate) {
+        return NimbusJwtDecoder.withJwkSetUri(jwksUri)
+                .restOperations(authServiceRestTemplate)
+                .build();
+    }
+}
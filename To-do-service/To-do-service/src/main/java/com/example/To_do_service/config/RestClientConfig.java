@@ -0,0 +1,27 @@
+package com.example.To_do_service.config;
+
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.ClientHttpRequestFactorySettings;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+
+@Configuration
+public class RestClientConfig {
+
+    // Resuelve nombres de Eureka (http://analytics-service/...) como en el WebClient de analytics.
+    // Timeouts explícitos, como el RestTemplate de JwtConfig: un analytics-service colgado no
+    // bloquea sin límite el hilo de PublicadorOutbox
+    @Bean
+    @LoadBalanced
+    public RestClient.Builder restClientBuilder() {
+        ClientHttpRequestFactorySettings timeouts = ClientHttpRequestFactorySettings.defaults()
+                .withConnectTimeout(Duration.ofSeconds(2))
+                .withReadTimeout(Duration.ofSeconds(5));
+        return RestClient.builder()
+                .requestFactory(ClientHttpRequestFactoryBuilder.detect().build(timeouts));
+    }
+}
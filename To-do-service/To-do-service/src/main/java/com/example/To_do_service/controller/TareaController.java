@@ -1,14 +1,30 @@
 package com.example.To_do_service.controller;
 
 import com.example.To_do_service.Service.TareaService;
+import com.example.To_do_service.dto.EstadisticasTareas;
+import com.example.To_do_service.dto.OperacionTarea;
+import com.example.To_do_service.dto.ResultadoLote;
+import com.example.To_do_service.dto.TareaPagina;
+import com.example.To_do_service.dto.TareaResumen;
+import com.example.To_do_service.eventos.NotificadorEventosTareas;
 import com.example.To_do_service.model.Tarea;
 import com.example.To_do_service.model.TaskStatus;
+import com.example.To_do_service.model.VersionTareas;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.ZoneOffset;
 import java.util.List;
 
 @RestController
@@ -16,7 +32,11 @@ import java.util.List;
 @RequiredArgsConstructor
 public class TareaController {
 
+    private static final int MAX_OPERACIONES_LOTE = 1000;
+
     private final TareaService tareaService;
+    private final ObjectMapper objectMapper;
+    private final NotificadorEventosTareas notificadorEventos;
 
     @PostMapping
     public ResponseEntity<Tarea> crearTarea(@RequestBody Tarea tarea) {
@@ -30,6 +50,20 @@ public class TareaController {
         return ResponseEntity.ok(creada);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<ResultadoLote> ejecutarLote(@RequestBody List<OperacionTarea> operaciones) {
+        // Sincronización offline: creaciones, actualizaciones y borrados en una sola transacción
+        if (operaciones.isEmpty() || operaciones.size() > MAX_OPERACIONES_LOTE
+                || operaciones.stream().anyMatch(op -> op.getTipo() == null
+                || (op.getTipo() != OperacionTarea.Tipo.CREAR && op.getId() == null))) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String username = getCurrentUsername();
+        ResultadoLote resultado = tareaService.ejecutarLote(username, operaciones);
+        return ResponseEntity.ok(resultado);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Tarea> obtenerTareaPorId(@PathVariable Long id) {
         String username = getCurrentUsername();
@@ -42,59 +76,111 @@ public class TareaController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Tarea>> obtenerTodasLasTareas() {
+    public ResponseEntity<List<TareaResumen>> obtenerTodasLasTareas(WebRequest request) {
         // En lugar de obtener todas las tareas, solo obtenemos las del usuario actual
         String username = getCurrentUsername();
-        List<Tarea> tareas = tareaService.obtenerTareasPorUsuario(username);
+        if (noModificado(username, request)) {
+            return null; // 304 ya preparado por checkNotModified
+        }
+        List<TareaResumen> tareas = tareaService.obtenerTareasPorUsuario(username);
         return ResponseEntity.ok(tareas);
     }
 
+    @GetMapping(params = "limit")
+    public ResponseEntity<TareaPagina> obtenerTareasPaginadas(
+            @RequestParam(required = false) Long after,
+            @RequestParam int limit) {
+        // Paginación por cursor: ?after=<id>&limit=N
+        String username = getCurrentUsername();
+        TareaPagina pagina = tareaService.obtenerTareasPorUsuarioPaginadas(username, after, limit);
+        return ResponseEntity.ok(pagina);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<EstadisticasTareas> obtenerEstadisticas() {
+        // Conteo por estado calculado con GROUP BY, sin descargar las tareas
+        String username = getCurrentUsername();
+        return ResponseEntity.ok(tareaService.obtenerEstadisticasPorUsuario(username));
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> suscribirEventos() {
+        // Push de creaciones/actualizaciones/borrados del usuario en lugar de hacer polling
+        String username = getCurrentUsername();
+        try {
+            return ResponseEntity.ok(notificadorEventos.suscribir(username));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportarTareas() {
+        // El cuerpo se escribe en otro hilo, así que leemos el usuario ahora
+        String username = getCurrentUsername();
+
+        StreamingResponseBody cuerpo = out -> tareaService.exportarTareasPorUsuario(username, tarea -> {
+            try {
+                // Una tarea JSON por línea, escrita a medida que se lee de la base de datos
+                out.write(objectMapper.writeValueAsBytes(tarea));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(cuerpo);
+    }
+
     @GetMapping("/estado/{status}")
-    public ResponseEntity<List<Tarea>> obtenerTareasPorEstado(@PathVariable TaskStatus status) {
+    public ResponseEntity<List<TareaResumen>> obtenerTareasPorEstado(@PathVariable TaskStatus status,
+                                                                     WebRequest request) {
         // Filtrar por estado y por usuario
         String username = getCurrentUsername();
-        List<Tarea> tareas = tareaService.obtenerTareasPorUsuarioYEstado(username, status);
+        if (noModificado(username, request)) {
+            return null;
+        }
+        List<TareaResumen> tareas = tareaService.obtenerTareasPorUsuarioYEstado(username, status);
         return ResponseEntity.ok(tareas);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<Tarea> actualizarTarea(@PathVariable Long id, @RequestBody Tarea tareaDetalles) {
-        try {
-            String username = getCurrentUsername();
-
-            // Verificar que la tarea pertenezca al usuario actual
-            tareaService.obtenerTareaPorId(id)
-                    .filter(tarea -> tarea.getUsername() != null && tarea.getUsername().equals(username))
-                    .orElseThrow(() -> new RuntimeException("Tarea no encontrada o no autorizada"));
-
-            // Asegurar que no se cambie el propietario
-            tareaDetalles.setUsername(username);
+        String username = getCurrentUsername();
 
-            Tarea actualizada = tareaService.actualizarTarea(id, tareaDetalles);
-            return ResponseEntity.ok(actualizada);
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        }
+        // La comprobación de propietario va en el mismo UPDATE (WHERE id = ? AND username = ?)
+        return tareaService.actualizarTareaDeUsuario(id, username, tareaDetalles)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> eliminarTarea(@PathVariable Long id) {
-        try {
-            String username = getCurrentUsername();
-
-            // Verificar que la tarea pertenezca al usuario actual
-            tareaService.obtenerTareaPorId(id)
-                    .filter(tarea -> tarea.getUsername() != null && tarea.getUsername().equals(username))
-                    .orElseThrow(() -> new RuntimeException("Tarea no encontrada o no autorizada"));
+        String username = getCurrentUsername();
 
-            tareaService.eliminarTarea(id);
-            return ResponseEntity.noContent().build();
-        } catch (RuntimeException e) {
+        // Igual que en la actualización: un solo DELETE filtrado por propietario
+        if (!tareaService.eliminarTareaDeUsuario(id, username)) {
             return ResponseEntity.notFound().build();
         }
+        return ResponseEntity.noContent().build();
     }
 
 
+    /**
+     * GET condicional (If-None-Match / If-Modified-Since) con la versión de las tareas del usuario.
+     * Solo consulta la fila de versión; también añade ETag y Last-Modified a la respuesta 200.
+     */
+    private boolean noModificado(String username, WebRequest request) {
+        VersionTareas version = tareaService.obtenerVersionTareas(username);
+        String etag = "\"v" + version.getVersion() + "\"";
+        long lastModified = version.getLastModified() != null
+                ? version.getLastModified().toInstant(ZoneOffset.UTC).toEpochMilli()
+                : -1;
+        return request.checkNotModified(etag, lastModified);
+    }
+
     private String getCurrentUsername() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null) {
@@ -0,0 +1,9 @@
+package com.example.To_do_service.dto;
+
+import com.example.To_do_service.model.TaskStatus;
+
+/**
+ * Fila del GROUP BY status de las estadísticas por usuario.
+ */
+public record ConteoEstado(TaskStatus status, Long total) {
+}
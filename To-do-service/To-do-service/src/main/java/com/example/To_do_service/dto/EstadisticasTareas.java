@@ -0,0 +1,22 @@
+package com.example.To_do_service.dto;
+
+import com.example.To_do_service.model.TaskStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Respuesta de GET /api/tareas/stats: número de tareas del usuario por estado.
+ * porEstado incluye todos los estados de TaskStatus (con 0 si no hay tareas).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasTareas {
+
+    private long total;
+
+    private Map<TaskStatus, Long> porEstado;
+}
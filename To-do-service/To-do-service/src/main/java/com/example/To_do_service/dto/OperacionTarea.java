@@ -0,0 +1,32 @@
+package com.example.To_do_service.dto;
+
+import com.example.To_do_service.model.TaskStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Una operación dentro de POST /api/tareas/batch.
+ * CREAR usa title/description/status, ACTUALIZAR usa id y los mismos campos, ELIMINAR solo el id.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OperacionTarea {
+
+    public enum Tipo {
+        CREAR,
+        ACTUALIZAR,
+        ELIMINAR
+    }
+
+    private Tipo tipo;
+
+    private Long id;
+
+    private String title;
+
+    private String description;
+
+    private TaskStatus status;
+}
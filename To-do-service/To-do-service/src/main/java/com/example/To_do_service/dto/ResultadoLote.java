@@ -0,0 +1,20 @@
+package com.example.To_do_service.dto;
+
+import com.example.To_do_service.model.Tarea;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoLote {
+
+    private List<Tarea> creadas;
+
+    private List<Tarea> actualizadas;
+
+    private int eliminadas;
+}
@@ -0,0 +1,22 @@
+package com.example.To_do_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de tareas obtenida por keyset (cursor = id de la última tarea).
+ * Si nextCursor es null no hay más tareas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TareaPagina {
+
+    private List<TareaResumen> tareas;
+
+    // Valor a enviar en ?after= para pedir la siguiente página
+    private Long nextCursor;
+}
@@ -0,0 +1,20 @@
+package com.example.To_do_service.dto;
+
+import com.example.To_do_service.model.TaskStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyección de solo lectura de una tarea para los listados.
+ * Se construye directamente desde la consulta (select new ...), sin pasar por el
+ * contexto de persistencia, y serializa los mismos campos que la entidad Tarea.
+ */
+public record TareaResumen(
+        Long id,
+        String title,
+        String description,
+        TaskStatus status,
+        LocalDateTime createdAt,
+        String username
+) {
+}
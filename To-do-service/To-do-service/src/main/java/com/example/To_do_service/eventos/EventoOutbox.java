@@ -0,0 +1,17 @@
+package com.example.To_do_service.eventos;
+
+import java.time.Instant;
+
+/**
+ * Fila de task_outbox tal como se envía a analytics-service (POST /api/analytics/eventos).
+ * eventoId es creciente por tarea y permite al receptor descartar duplicados.
+ */
+public record EventoOutbox(
+        long eventoId,
+        String tipo,
+        long tareaId,
+        String username,
+        String status,
+        Instant timestamp
+) {
+}
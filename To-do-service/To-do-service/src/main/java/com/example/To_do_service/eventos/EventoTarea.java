@@ -0,0 +1,28 @@
+package com.example.To_do_service.eventos;
+
+import com.example.To_do_service.model.TaskStatus;
+
+import java.time.Instant;
+
+/**
+ * Cambio sobre una tarea de un usuario. Se publica desde TareaServiceImpl y,
+ * una vez confirmada la transacción, se envía a las conexiones SSE del usuario.
+ */
+public record EventoTarea(
+        Tipo tipo,
+        Long id,
+        String username,
+        TaskStatus status,
+        Instant timestamp
+) {
+
+    public enum Tipo {
+        CREADA,
+        ACTUALIZADA,
+        ELIMINADA
+    }
+
+    public static EventoTarea de(Tipo tipo, Long id, String username, TaskStatus status) {
+        return new EventoTarea(tipo, id, username, status, Instant.now());
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.To_do_service.eventos;
+
+import com.example.To_do_service.config.EventosConfig;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Envía los eventos de tareas a las conexiones SSE (GET /api/tareas/events) de cada usuario.
+ *
+ * Cada conexión tiene un buffer acotado. Quien publica nunca se bloquea: si un cliente
+ * lento llena su buffer se descartan sus eventos pendientes y se le envía un evento
+ * "resync" para que vuelva a pedir la lista completa.
+ */
+@Component
+@Slf4j
+public class NotificadorEventosTareas {
+
+    private static final long TIMEOUT_CONEXION_MS = Duration.ofMinutes(30).toMillis();
+    private static final int CAPACIDAD_BUFFER = 256;
+    private static final int MAX_CONEXIONES_POR_USUARIO = 5;
+
+    private final Map<String, Set<Suscriptor>> suscriptores = new ConcurrentHashMap<>();
+
+    // Hilos que escriben en las conexiones; así un cliente lento no frena la petición que hizo el cambio
+    private final TaskExecutor envios;
+
+    public NotificadorEventosTareas(@Qualifier(EventosConfig.ENVIOS_SSE) TaskExecutor envios) {
+        this.envios = envios;
+    }
+
+    public SseEmitter suscribir(String username) {
+        SseEmitter emitter = new SseEmitter(TIMEOUT_CONEXION_MS);
+        Suscriptor suscriptor = new Suscriptor(emitter);
+
+        // Comprobar el límite y añadir en el mismo compute: dos suscripciones a la vez no lo superan
+        suscriptores.compute(username, (u, delUsuario) -> {
+            Set<Suscriptor> conexiones = delUsuario != null ? delUsuario : new CopyOnWriteArraySet<>();
+            if (conexiones.size() >= MAX_CONEXIONES_POR_USUARIO) {
+                throw new IllegalStateException("Demasiadas conexiones de eventos abiertas para " + username);
+            }
+            conexiones.add(suscriptor);
+            return conexiones;
+        });
+
+        Runnable quitar = () -> quitar(username, suscriptor);
+        emitter.onCompletion(quitar);
+        emitter.onTimeout(quitar);
+        emitter.onError(error -> quitar.run());
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void alCambiarTarea(EventoTarea evento) {
+        Set<Suscriptor> delUsuario = suscriptores.get(evento.username());
+        if (delUsuario == null) {
+            return;
+        }
+        for (Suscriptor suscriptor : delUsuario) {
+            suscriptor.encolar(evento);
+        }
+    }
+
+    // Comentario SSE periódico para que proxies y balanceadores no cierren conexiones inactivas
+    @Scheduled(fixedRate = 25_000)
+    public void latido() {
+        suscriptores.values().forEach(delUsuario -> delUsuario.forEach(Suscriptor::latido));
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        suscriptores.values().forEach(delUsuario -> delUsuario.forEach(s -> s.emitter.complete()));
+    }
+
+    private void quitar(String username, Suscriptor suscriptor) {
+        suscriptores.computeIfPresent(username, (u, delUsuario) -> {
+            delUsuario.remove(suscriptor);
+            return delUsuario.isEmpty() ? null : delUsuario;
+        });
+    }
+
+    private final class Suscriptor {
+
+        private final SseEmitter emitter;
+        private final Queue<EventoTarea> buffer = new ArrayBlockingQueue<>(CAPACIDAD_BUFFER);
+        private final AtomicBoolean desbordado = new AtomicBoolean();
+        private final AtomicBoolean enviando = new AtomicBoolean();
+
+        private Suscriptor(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void encolar(EventoTarea evento) {
+            if (!buffer.offer(evento)) {
+                // Cliente demasiado lento: los eventos pendientes ya no sirven, que resincronice
+                buffer.clear();
+                desbordado.set(true);
+            }
+            programarEnvio();
+        }
+
+        void latido() {
+            // Con eventos pendientes ya hay tráfico; el ping también toma el flag para no
+            // escribir en el emitter a la vez que vaciar() (SseEmitter.send no es thread-safe)
+            if (buffer.isEmpty() && enviando.compareAndSet(false, true)) {
+                envios.execute(() -> enviarEnExclusiva(() -> enviar(SseEmitter.event().comment("ping"))));
+            }
+        }
+
+        private void programarEnvio() {
+            // Solo una tarea de envío por conexión a la vez, para conservar el orden
+            if (enviando.compareAndSet(false, true)) {
+                envios.execute(() -> enviarEnExclusiva(this::vaciar));
+            }
+        }
+
+        // Se ejecuta con el flag "enviando" ya tomado por quien programó la tarea
+        private void enviarEnExclusiva(Runnable envio) {
+            try {
+                envio.run();
+            } finally {
+                enviando.set(false);
+            }
+            // Pudo llegar un evento entre el último poll y liberar el flag
+            if (!buffer.isEmpty() || desbordado.get()) {
+                programarEnvio();
+            }
+        }
+
+        private void vaciar() {
+            if (desbordado.getAndSet(false)) {
+                enviar(SseEmitter.event().name("resync").data("buffer lleno"));
+            }
+            EventoTarea evento;
+            while ((evento = buffer.poll()) != null) {
+                enviar(SseEmitter.event().name(evento.tipo().name()).data(evento));
+            }
+        }
+
+        private void enviar(SseEmitter.SseEventBuilder evento) {
+            try {
+                emitter.send(evento);
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Conexión SSE cerrada: {}", e.getMessage());
+                buffer.clear();
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.To_do_service.eventos;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Escribe los EventoTarea en la tabla task_outbox dentro de la misma transacción que el cambio.
+ *
+ * Los eventos de una transacción se acumulan y se insertan con un único batchUpdate justo antes
+ * del commit, así POST /api/tareas/batch no añade un INSERT por operación.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxEventosTareas {
+
+    private static final String INSERT =
+            "INSERT INTO task_outbox (tipo, tarea_id, username, status, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @EventListener
+    public void alCambiarTarea(EventoTarea evento) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Los cambios de tareas deben publicarse dentro de una transacción");
+        }
+        pendientesDeLaTransaccion().add(evento);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<EventoTarea> pendientesDeLaTransaccion() {
+        List<EventoTarea> pendientes = (List<EventoTarea>) TransactionSynchronizationManager.getResource(this);
+        if (pendientes == null) {
+            List<EventoTarea> nuevos = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, nuevos);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    // Primero los cambios de las tareas (y sus bloqueos de fila), después el outbox:
+                    // así el id del evento queda ordenado igual que los commits sobre la misma tarea
+                    entityManager.flush();
+                    insertar(nuevos);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(OutboxEventosTareas.this);
+                }
+            });
+            pendientes = nuevos;
+        }
+        return pendientes;
+    }
+
+    private void insertar(List<EventoTarea> eventos) {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT, eventos, eventos.size(), (ps, evento) -> {
+            ps.setString(1, evento.tipo().name());
+            ps.setLong(2, evento.id());
+            ps.setString(3, evento.username());
+            ps.setString(4, evento.status() != null ? evento.status().name() : null);
+            ps.setTimestamp(5, Timestamp.from(evento.timestamp()));
+        });
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.To_do_service.eventos;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Envía en lotes los eventos de task_outbox a analytics-service.
+ *
+ * Cada lote se reserva en una transacción corta: FOR UPDATE SKIP LOCKED elige filas libres (o con
+ * la reserva vencida) y se marcan con un reclamo y en_vuelo_hasta antes de confirmar. El POST se
+ * hace ya sin transacción ni bloqueos, y una segunda transacción corta borra las filas entregadas
+ * o las libera si el envío falló. Varias instancias pueden publicar a la vez sin repartirse los
+ * mismos eventos; si una muere a mitad de envío, el lote se reintenta al vencer la reserva
+ * (entrega al menos una vez).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PublicadorOutbox {
+
+    private static final int TAMANIO_LOTE = 200;
+    private static final int MAX_LOTES_POR_CICLO = 10;
+
+    private static final String SELECT_LOTE =
+            "SELECT id, tipo, tarea_id, username, status, created_at FROM task_outbox " +
+            "WHERE en_vuelo_hasta IS NULL OR en_vuelo_hasta < ? " +
+            "ORDER BY id LIMIT " + TAMANIO_LOTE + " FOR UPDATE SKIP LOCKED";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RestClient.Builder restClientBuilder;
+
+    @Value("${analytics.eventos.url:http://analytics-service/api/analytics/eventos}")
+    private String url;
+
+    @Value("${analytics.eventos.token}")
+    private String token;
+
+    // Debe superar el timeout de lectura del RestClient (RestClientConfig) con margen
+    @Value("${analytics.eventos.reserva:30s}")
+    private Duration reserva;
+
+    @PostConstruct
+    void comprobarToken() {
+        if (token == null || token.isBlank()) {
+            throw new IllegalStateException("analytics.eventos.token (ANALYTICS_EVENTOS_TOKEN) no está configurado");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.eventos.intervalo-ms:1000}")
+    public void publicar() {
+        for (int i = 0; i < MAX_LOTES_POR_CICLO; i++) {
+            String reclamo = UUID.randomUUID().toString();
+            List<EventoOutbox> lote = transactionTemplate.execute(estado -> reservarLote(reclamo));
+            if (lote == null || lote.isEmpty()) {
+                return;
+            }
+
+            List<Long> ids = lote.stream().map(EventoOutbox::eventoId).toList();
+            try {
+                enviar(lote);
+            } catch (RestClientException e) {
+                log.warn("No se pudo entregar el outbox a analytics-service: {}", e.getMessage());
+                transactionTemplate.executeWithoutResult(estado -> liberar(ids, reclamo));
+                return;
+            }
+            transactionTemplate.executeWithoutResult(estado -> borrar(ids, reclamo));
+
+            if (lote.size() < TAMANIO_LOTE) {
+                return;
+            }
+        }
+    }
+
+    private List<EventoOutbox> reservarLote(String reclamo) {
+        Instant ahora = Instant.now();
+        List<EventoOutbox> lote = jdbcTemplate.query(SELECT_LOTE, (rs, n) -> new EventoOutbox(
+                rs.getLong("id"),
+                rs.getString("tipo"),
+                rs.getLong("tarea_id"),
+                rs.getString("username"),
+                rs.getString("status"),
+                rs.getTimestamp("created_at").toInstant()), Timestamp.from(ahora));
+        if (lote.isEmpty()) {
+            return lote;
+        }
+
+        List<Long> ids = lote.stream().map(EventoOutbox::eventoId).toList();
+        namedJdbcTemplate.update(
+                "UPDATE task_outbox SET reclamo = :reclamo, en_vuelo_hasta = :hasta WHERE id IN (:ids)",
+                Map.of("reclamo", reclamo, "hasta", Timestamp.from(ahora.plus(reserva)), "ids", ids));
+        return lote;
+    }
+
+    private void enviar(List<EventoOutbox> lote) {
+        restClientBuilder.build()
+                .post()
+                .uri(url)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Internal-Token", token)
+                .body(lote)
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    // Solo las filas que siguen siendo de este reclamo: si la reserva venció y otra instancia
+    // las tomó, son suyas (analytics-service descarta el duplicado por eventoId)
+    private void borrar(List<Long> ids, String reclamo) {
+        namedJdbcTemplate.update("DELETE FROM task_outbox WHERE id IN (:ids) AND reclamo = :reclamo",
+                Map.of("ids", ids, "reclamo", reclamo));
+    }
+
+    private void liberar(List<Long> ids, String reclamo) {
+        namedJdbcTemplate.update(
+                "UPDATE task_outbox SET reclamo = NULL, en_vuelo_hasta = NULL WHERE id IN (:ids) AND reclamo = :reclamo",
+                Map.of("ids", ids, "reclamo", reclamo));
+    }
+}
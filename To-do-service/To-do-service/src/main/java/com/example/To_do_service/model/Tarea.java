@@ -10,15 +10,23 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+        // Mantener en sincronía con db/migration/V2__indices_tasks_por_usuario.sql
+        @Index(name = "idx_tasks_username_status", columnList = "username, status"),
+        @Index(name = "idx_tasks_username_id", columnList = "username, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Tarea {
 
+    // IDENTITY obliga a Hibernate a insertar fila por fila para conocer el id.
+    // Con un generador pooled (en MySQL se emula con la tabla tasks_seq) los ids se
+    // reservan de 50 en 50 y los INSERT se pueden enviar en lotes JDBC.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_seq")
+    @SequenceGenerator(name = "tasks_seq", sequenceName = "tasks_seq", allocationSize = 50)
     private Long id;
 
     private String title;
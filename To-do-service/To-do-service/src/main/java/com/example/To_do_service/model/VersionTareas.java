@@ -0,0 +1,28 @@
+package com.example.To_do_service.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Versión de las tareas de un usuario. Cada escritura la incrementa, así que
+ * sirve de ETag (y lastModified de Last-Modified) sin tener que leer las tareas.
+ */
+@Entity
+@Table(name = "task_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VersionTareas {
+
+    @Id
+    private String username;
+
+    private long version;
+
+    // En UTC
+    private LocalDateTime lastModified;
+}
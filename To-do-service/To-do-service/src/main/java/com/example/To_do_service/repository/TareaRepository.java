@@ -1,11 +1,25 @@
 package com.example.To_do_service.repository;
 
+import com.example.To_do_service.dto.ConteoEstado;
+import com.example.To_do_service.dto.TareaResumen;
 import com.example.To_do_service.model.Tarea;
 import com.example.To_do_service.model.TaskStatus;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TareaRepository extends JpaRepository<Tarea, Long> {
@@ -14,4 +28,57 @@ public interface TareaRepository extends JpaRepository<Tarea, Long> {
 
     List<Tarea> findByUsername(String username);
     List<Tarea> findByUsernameAndStatus(String username, TaskStatus status);
+
+    // Proyecciones para los listados: no se crean entidades gestionadas ni snapshots de dirty-checking
+    @Query("select new com.example.To_do_service.dto.TareaResumen(t.id, t.title, t.description, t.status, t.createdAt, t.username) " +
+            "from Tarea t where t.username = :username")
+    List<TareaResumen> buscarResumenPorUsuario(@Param("username") String username);
+
+    @Query("select new com.example.To_do_service.dto.TareaResumen(t.id, t.title, t.description, t.status, t.createdAt, t.username) " +
+            "from Tarea t where t.username = :username and t.status = :status")
+    List<TareaResumen> buscarResumenPorUsuarioYEstado(@Param("username") String username,
+                                                      @Param("status") TaskStatus status);
+
+    // Conteo agregado en la base de datos (usa el índice username, status)
+    @Query("select new com.example.To_do_service.dto.ConteoEstado(t.status, count(t)) " +
+            "from Tarea t where t.username = :username group by t.status")
+    List<ConteoEstado> contarPorEstado(@Param("username") String username);
+
+    // Paginación por keyset: solo lee las filas posteriores al cursor, sin OFFSET ni COUNT
+    @Query("select new com.example.To_do_service.dto.TareaResumen(t.id, t.title, t.description, t.status, t.createdAt, t.username) " +
+            "from Tarea t where t.username = :username and t.id > :after order by t.id")
+    List<TareaResumen> buscarResumenPorUsuarioDesde(@Param("username") String username,
+                                                    @Param("after") Long after,
+                                                    Pageable pageable);
+
+    // Exportación en streaming: con fetch size Integer.MIN_VALUE el driver de MySQL
+    // entrega las filas una a una en lugar de cargar todo el resultado en memoria.
+    // Debe consumirse dentro de una transacción y cerrarse al terminar.
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("select t from Tarea t where t.username = :username order by t.id")
+    Stream<Tarea> streamByUsername(@Param("username") String username);
+
+    // Escrituras acotadas al propietario: una sola sentencia, devuelven las filas afectadas
+    @Modifying
+    @Query("update Tarea t set t.title = :title, t.description = :description, t.status = :status " +
+            "where t.id = :id and t.username = :username")
+    int actualizarPorIdYUsername(@Param("id") Long id,
+                                 @Param("username") String username,
+                                 @Param("title") String title,
+                                 @Param("description") String description,
+                                 @Param("status") TaskStatus status);
+
+    // Única columna de la respuesta de PUT que el cliente no envía (MySQL no tiene UPDATE ... RETURNING)
+    @Query("select t.createdAt from Tarea t where t.id = :id")
+    Optional<LocalDateTime> buscarCreatedAtPorId(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from Tarea t where t.id = :id and t.username = :username")
+    int eliminarPorIdYUsername(@Param("id") Long id, @Param("username") String username);
+
+    List<Tarea> findByUsernameAndIdIn(String username, Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Tarea t where t.username = :username and t.id in :ids")
+    int eliminarPorIdsYUsername(@Param("ids") Collection<Long> ids, @Param("username") String username);
 }
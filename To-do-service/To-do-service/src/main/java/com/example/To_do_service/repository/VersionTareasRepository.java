@@ -0,0 +1,20 @@
+package com.example.To_do_service.repository;
+
+import com.example.To_do_service.model.VersionTareas;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface VersionTareasRepository extends JpaRepository<VersionTareas, String> {
+
+    // Upsert atómico: crea la fila con versión 1 o incrementa la existente
+    @Modifying
+    @Query(value = "INSERT INTO task_versions (username, version, last_modified) VALUES (:username, 1, :ahora) " +
+            "ON DUPLICATE KEY UPDATE version = version + 1, last_modified = :ahora", nativeQuery = true)
+    int incrementar(@Param("username") String username, @Param("ahora") LocalDateTime ahora);
+}
@@ -0,0 +1,94 @@
+package com.example.To_do_service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.function.Function;
+
+/**
+ * Tokens JWT ya verificados (firma y expiración), por SHA-256 del token.
+ *
+ * Un cliente envía el mismo token en cada petición durante toda su vida; así la firma
+ * RS256 y los claims se procesan una vez por token y por instancia. Cada entrada caduca
+ * cuando expira el token (o a los jwt.cache.ttl-maximo, lo que ocurra antes) y la caché
+ * está acotada a jwt.cache.maximo-tokens. Los tokens inválidos no se guardan.
+ * La revocación no se cachea: se comprueba en cada petición con RevocacionesTokens.
+ *
+ * Métricas en /actuator/metrics/cache.gets (tags cache=jwt.tokens.verificados, result=hit|miss),
+ * cache.evictions y cache.size.
+ */
+@Component
+public class CacheTokensVerificados {
+
+    public static final String NOMBRE_CACHE = "jwt.tokens.verificados";
+
+    private final Cache<String, TokenVerificado> cache;
+
+    public CacheTokensVerificados(MeterRegistry meterRegistry,
+                                  @Value("${jwt.cache.maximo-tokens:100000}") long maximoTokens,
+                                  @Value("${jwt.cache.ttl-maximo:1h}") Duration ttlMaximo) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximoTokens)
+                .expireAfter(new HastaLaExpiracionDelToken(ttlMaximo))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NOMBRE_CACHE);
+    }
+
+    /**
+     * Devuelve el token verificado de la caché o, si no está, lo verifica con el verificador
+     * y lo guarda. Las excepciones del verificador (token inválido o expirado) se propagan.
+     */
+    public TokenVerificado obtener(String token, Function<String, TokenVerificado> verificador) {
+        return cache.get(digest(token), clave -> verificador.apply(token));
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Usuario, jti, emisión y expiración del token (emitido y expiracion son null si
+     * el token no trae "iat" o "exp").
+     */
+    public record TokenVerificado(String username, String jti, Instant emitido, Instant expiracion) {
+    }
+
+    private record HastaLaExpiracionDelToken(Duration ttlMaximo) implements Expiry<String, TokenVerificado> {
+
+        @Override
+        public long expireAfterCreate(String clave, TokenVerificado token, long ahora) {
+            if (token.expiracion() == null) {
+                return ttlMaximo.toNanos();
+            }
+            long restante = Duration.between(Instant.now(), token.expiracion()).toNanos();
+            return Math.max(0, Math.min(restante, ttlMaximo.toNanos()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String clave, TokenVerificado token, long ahora, long duracionActual) {
+            return duracionActual;
+        }
+
+        @Override
+        public long expireAfterRead(String clave, TokenVerificado token, long ahora, long duracionActual) {
+            return duracionActual;
+        }
+    }
+}
@@ -1,31 +1,34 @@
 package com.example.To_do_service.security;
 
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.security.Key;
 import java.util.Collections;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    // IMPORTANTE: Usar la misma clave secreta que en el auth-service
-    private static final String SECRET_KEY = "mi-clave-super-secreta-mas-larga-que-256-bits-segura";
+    // Verifica los tokens RS256 de auth-service con las claves públicas de su JWKS (ver JwtConfig)
+    private final JwtDecoder jwtDecoder;
+    private final CacheTokensVerificados tokensVerificados;
+    private final RevocacionesTokens revocaciones;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    public JwtAuthenticationFilter(JwtDecoder jwtDecoder, CacheTokensVerificados tokensVerificados,
+                                   RevocacionesTokens revocaciones) {
+        this.jwtDecoder = jwtDecoder;
+        this.tokensVerificados = tokensVerificados;
+        this.revocaciones = revocaciones;
     }
 
     @Override
@@ -44,7 +47,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             final String jwt = authHeader.substring(7);
-            final String username = extractUsername(jwt);
+            // Firma y claims se verifican la primera vez que llega el token; después, desde la caché
+            final CacheTokensVerificados.TokenVerificado token = tokensVerificados.obtener(jwt, this::verificar);
+            // La revocación (logout, usuario borrado) se mira siempre, en memoria
+            final String username = revocaciones.estaRevocado(token) ? null : token.username();
 
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                 // Crear autenticación sin consultar al servicio de auth
@@ -64,12 +70,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private String extractUsername(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();
+    private CacheTokensVerificados.TokenVerificado verificar(String token) {
+        Jwt jwt = jwtDecoder.decode(token);
+        return new CacheTokensVerificados.TokenVerificado(
+                jwt.getSubject(), jwt.getId(), jwt.getIssuedAt(), jwt.getExpiresAt());
     }
 }
\ No newline at end of file
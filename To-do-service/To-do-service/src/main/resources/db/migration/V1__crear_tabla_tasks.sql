@@ -0,0 +1,11 @@
+-- Esquema inicial de la tabla de tareas (equivalente a lo que generaba ddl-auto: update).
+-- En bases de datos existentes Flyway hace baseline en esta versión y no la ejecuta.
+CREATE TABLE IF NOT EXISTS tasks (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    title       VARCHAR(255),
+    description VARCHAR(255),
+    status      ENUM ('PENDING', 'IN_PROGRESS', 'COMPLETED', 'CANCELLED', 'ON_HOLD'),
+    created_at  DATETIME(6),
+    username    VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
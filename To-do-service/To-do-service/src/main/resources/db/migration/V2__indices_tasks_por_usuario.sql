@@ -0,0 +1,5 @@
+-- Índices compuestos para las consultas por usuario:
+--   findByUsernameAndStatus                    -> (username, status)
+--   findByUsername / paginación por keyset     -> (username, id)
+CREATE INDEX idx_tasks_username_status ON tasks (username, status);
+CREATE INDEX idx_tasks_username_id ON tasks (username, id);
@@ -0,0 +1,8 @@
+-- Generador pooled para tasks.id (Hibernate emula la secuencia con esta tabla en MySQL).
+-- Se arranca por encima del id máximo actual más un bloque completo (allocationSize = 50).
+CREATE TABLE IF NOT EXISTS tasks_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO tasks_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 51 FROM tasks;
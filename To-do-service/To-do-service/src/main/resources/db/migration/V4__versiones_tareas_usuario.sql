@@ -0,0 +1,8 @@
+-- Versión de las tareas de cada usuario para ETag / Last-Modified.
+-- Se incrementa en la misma transacción que cada escritura sobre tasks.
+CREATE TABLE IF NOT EXISTS task_versions (
+    username      VARCHAR(255) NOT NULL,
+    version       BIGINT       NOT NULL,
+    last_modified DATETIME(6)  NOT NULL,
+    PRIMARY KEY (username)
+) ENGINE = InnoDB;
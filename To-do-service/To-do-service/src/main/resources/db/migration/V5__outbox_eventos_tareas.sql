@@ -0,0 +1,12 @@
+-- Outbox transaccional: cada cambio de tarea deja aquí su evento en la misma transacción.
+-- PublicadorOutbox los envía en lotes a analytics-service y los borra al confirmarse la entrega.
+-- El id AUTO_INCREMENT se asigna con la fila de la tarea bloqueada, así que es creciente por tarea.
+CREATE TABLE IF NOT EXISTS task_outbox (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    tipo       VARCHAR(20)  NOT NULL,
+    tarea_id   BIGINT       NOT NULL,
+    username   VARCHAR(255) NOT NULL,
+    status     VARCHAR(20),
+    created_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,7 @@
+-- Reserva de lotes del outbox sin mantener la transacción abierta durante el envío.
+-- PublicadorOutbox marca las filas con su reclamo y en_vuelo_hasta, confirma, hace el POST fuera
+-- de toda transacción y después las borra (o las libera si falló). Si la instancia muere a mitad,
+-- las filas vuelven a estar disponibles al vencer en_vuelo_hasta.
+ALTER TABLE task_outbox
+    ADD COLUMN reclamo        VARCHAR(36) NULL,
+    ADD COLUMN en_vuelo_hasta DATETIME(6) NULL;
@@ -0,0 +1,152 @@
+package com.example.To_do_service.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Benchmark de las consultas por usuario sobre la tabla tasks con más de 1M de filas.
+ * Mide la latencia antes (solo V1) y después (V2) de crear los índices compuestos.
+ *
+ * Necesita Docker y no se ejecuta en el build normal:
+ *   mvn test -Dbenchmark=true -Dtest=TareaIndexBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TareaIndexBenchmarkTest {
+
+    private static final int TOTAL_FILAS = 1_200_000;
+    private static final int USUARIOS = 2_000;
+    private static final int TAMANIO_LOTE = 5_000;
+    private static final int REPETICIONES = 200;
+    private static final String[] ESTADOS = {"PENDING", "IN_PROGRESS", "COMPLETED", "CANCELLED", "ON_HOLD"};
+
+    private static MySQLContainer<?> mysql;
+
+    @BeforeAll
+    static void iniciarBaseDeDatos() throws SQLException {
+        mysql = new MySQLContainer<>("mysql:8.0");
+        mysql.start();
+
+        // Solo el esquema inicial, sin índices
+        flyway("1").migrate();
+        cargarDatos();
+    }
+
+    @AfterAll
+    static void detenerBaseDeDatos() {
+        if (mysql != null) {
+            mysql.stop();
+        }
+    }
+
+    @Test
+    void lasConsultasPorUsuarioUsanLosIndicesCompuestos() throws SQLException {
+        String porUsuarioYEstado = "SELECT * FROM tasks WHERE username = ? AND status = ?";
+        String porUsuarioKeyset = "SELECT * FROM tasks WHERE username = ? AND id > ? ORDER BY id LIMIT 50";
+
+        double sinIndiceEstado = medir(porUsuarioYEstado, true);
+        double sinIndiceKeyset = medir(porUsuarioKeyset, false);
+
+        flyway(null).migrate();
+
+        assertEquals("idx_tasks_username_status", indiceUsado(porUsuarioYEstado, true));
+        assertEquals("idx_tasks_username_id", indiceUsado(porUsuarioKeyset, false));
+
+        double conIndiceEstado = medir(porUsuarioYEstado, true);
+        double conIndiceKeyset = medir(porUsuarioKeyset, false);
+
+        assertTrue(conIndiceEstado < sinIndiceEstado, String.format(
+                "username+status: sin índice %.3f ms, con índice %.3f ms", sinIndiceEstado, conIndiceEstado));
+        assertTrue(conIndiceKeyset < sinIndiceKeyset, String.format(
+                "username+keyset: sin índice %.3f ms, con índice %.3f ms", sinIndiceKeyset, conIndiceKeyset));
+    }
+
+    private static Flyway flyway(String target) {
+        var config = Flyway.configure()
+                .dataSource(mysql.getJdbcUrl(), mysql.getUsername(), mysql.getPassword())
+                .locations("classpath:db/migration");
+        if (target != null) {
+            config.target(target);
+        }
+        return config.load();
+    }
+
+    private static Connection conectar() throws SQLException {
+        return DriverManager.getConnection(
+                mysql.getJdbcUrl() + "?rewriteBatchedStatements=true", mysql.getUsername(), mysql.getPassword());
+    }
+
+    private static void cargarDatos() throws SQLException {
+        String sql = "INSERT INTO tasks (title, description, status, created_at, username) VALUES (?, ?, ?, ?, ?)";
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+
+        try (Connection conn = conectar(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            for (int i = 0; i < TOTAL_FILAS; i++) {
+                ps.setString(1, "Tarea " + i);
+                ps.setString(2, "Descripción " + i);
+                ps.setString(3, ESTADOS[i % ESTADOS.length]);
+                ps.setTimestamp(4, ahora);
+                ps.setString(5, "usuario" + (i % USUARIOS));
+                ps.addBatch();
+
+                if ((i + 1) % TAMANIO_LOTE == 0) {
+                    ps.executeBatch();
+                    conn.commit();
+                }
+            }
+            ps.executeBatch();
+            conn.commit();
+        }
+    }
+
+    // Latencia media en milisegundos de la consulta para usuarios distintos
+    private static double medir(String sql, boolean conEstado) throws SQLException {
+        try (Connection conn = conectar(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            long inicio = System.nanoTime();
+            for (int i = 0; i < REPETICIONES; i++) {
+                ps.setString(1, "usuario" + (i * 7 % USUARIOS));
+                if (conEstado) {
+                    ps.setString(2, ESTADOS[i % ESTADOS.length]);
+                } else {
+                    ps.setLong(2, 0L);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        // consumir todas las filas
+                    }
+                }
+            }
+            return (System.nanoTime() - inicio) / 1_000_000.0 / REPETICIONES;
+        }
+    }
+
+    private static String indiceUsado(String sql, boolean conEstado) throws SQLException {
+        try (Connection conn = conectar(); PreparedStatement ps = conn.prepareStatement("EXPLAIN " + sql)) {
+            ps.setString(1, "usuario1");
+            if (conEstado) {
+                ps.setString(2, "PENDING");
+            } else {
+                ps.setLong(2, 0L);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getString("key");
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.To_do_service.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * La huella del username tiene que coincidir con la que publica auth-service en
+ * /auth/revocations; TokenRevocationServiceTest comprueba los mismos valores allí.
+ */
+class RevocacionesTokensTest {
+
+    @Test
+    void huellaUsuarioCoincideConLaDeAuthService() {
+        assertEquals("2bd806c97f0e00af1a1fc3328fa763a9269723c8db8fac4f93af71db186d6e90",
+                RevocacionesTokens.huellaUsuario("alice"));
+        assertEquals("d994e1d001886fe5b45b1267bd1fa2b752ac50742579bd3dad7b2a2aa0ed6866",
+                RevocacionesTokens.huellaUsuario("jos\u00e9"));
+    }
+}
@@ -1,14 +1,32 @@
 package com.example.analytics_service.client;
 
+import com.example.analytics_service.config.TodoClientProperties;
+import com.example.analytics_service.dto.EstadisticasTodoDto;
+import com.example.analytics_service.dto.EstadisticasTodoResultado;
+import com.example.analytics_service.dto.TareaSemillaDto;
+import com.example.analytics_service.dto.TareaStatusDto;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.reactor.timelimiter.TimeLimiterOperator;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 //@Service
 //@RequiredArgsConstructor
@@ -72,6 +90,12 @@ import java.util.Map;
 @Slf4j // Lombok: Logger automático - log.info(), log.error(), etc.
 public class TodoServiceClient {
 
+    // Instancias de Resilience4j: un circuito y un bulkhead comunes para todo-service,
+    // con límite de tiempo distinto para el conteo agregado y para el stream completo
+    private static final String TODO_SERVICE = "todoService";
+    private static final String TIME_LIMITER_STATS = "todoServiceStats";
+    private static final String TIME_LIMITER_STREAM = "todoServiceStream";
+
     // ==================== DEPENDENCIAS ====================
 
     /**
@@ -84,63 +108,243 @@ public class TodoServiceClient {
      */
     private final WebClient.Builder webClientBuilder;
 
-    // ==================== MÉTODO: OBTENER TAREAS DEL USUARIO ====================
+    private final TodoClientProperties props;
+
+    // Registros de Resilience4j (instancias configuradas en application.yml)
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final TimeLimiterRegistry timeLimiterRegistry;
+    private final RetryRegistry retryRegistry;
 
     /**
-     * OBTIENE TODAS LAS TAREAS DE UN USUARIO DESDE TODO-SERVICE
-     * ========================================================
+     * Consulta de estadísticas en curso o recién terminada, por usuario.
+     * Ver obtenerEstadisticasCompartidas().
+     */
+    private final Map<String, EstadisticasEnCache> estadisticasPorUsuario = new ConcurrentHashMap<>();
+
+    // Último conteo correcto por usuario, para responder OBSOLETO si Todo Service falla
+    private final Map<String, EstadisticasTodoResultado> ultimosConteos = new ConcurrentHashMap<>();
+
+    // ==================== MÉTODO: CONTAR TAREAS DEL USUARIO ====================
+
+    /**
+     * CUENTA LAS TAREAS DE UN USUARIO POR ESTADO LEYENDO EL STREAM DE TODO-SERVICE
+     * ===========================================================================
      *
-     * Este método demuestra varios conceptos avanzados:
-     * - Programación reactiva con Mono/Flux
-     * - Comunicación entre microservicios con load balancing
-     * - Manejo robusto de errores y timeouts
-     * - Autenticación JWT entre servicios
-     * - Logging estructurado para observabilidad
+     * Lee GET /api/tareas/stream (NDJSON) y decodifica cada línea en un TareaStatusDto
+     * (solo el campo status). Los conteos se acumulan a medida que llegan las tareas, sin
+     * construir una lista: la memoria depende del número de estados, no del de tareas.
      *
      * @param token JWT token del usuario autenticado
-     * @return Mono<List<Map<String, Object>>> Lista reactiva de tareas
+     * @return Mono<EstadisticasTodoResultado> conteo ACTUAL, o DEGRADADO si Todo Service falla
      */
-    public Mono<List<Map<String, Object>>> obtenerTareasUsuario(String token) {
+    public Mono<EstadisticasTodoResultado> contarTareasUsuario(String token) {
 
         // LOG DE INICIO: Importante para tracing y debugging
-        log.info("Consultando tareas del usuario en Todo Service");
+        log.info("Contando tareas del usuario desde el stream de Todo Service");
 
-        return webClientBuilder.build()  // Construir WebClient con load balancing
-
-                // ==================== HTTP REQUEST SETUP ====================
-                .get()  // Método HTTP GET
-                .uri("http://todo-service/api/tareas")  // ¡NOMBRE LÓGICO! No IP hardcodeada
+        Mono<EstadisticasTodoDto> llamada = webClientBuilder.build()  // Construir WebClient con load balancing
+                .get()
+                .uri("http://todo-service/api/tareas/stream")  // ¡NOMBRE LÓGICO! No IP hardcodeada
+                .accept(MediaType.APPLICATION_NDJSON)
 
                 // AUTENTICACIÓN: Pasamos el JWT del usuario a Todo Service
-                // Esto permite que Todo Service sepa qué usuario está pidiendo sus tareas
                 .header("Authorization", "Bearer " + token)
+                .retrieve()
 
-                // ==================== PROCESAMIENTO REACTIVO ====================
-                .retrieve()  // Ejecutar request y obtener respuesta
+                // Una tarea por línea, decodificada en cuanto llega
+                .bodyToFlux(TareaStatusDto.class)
+
+                // Acumulador nuevo por suscripción (reduceWith, no reduce con un mapa compartido)
+                .reduceWith(HashMap<String, Long>::new, (conteo, tarea) -> {
+                    conteo.merge(String.valueOf(tarea.status()), 1L, Long::sum);
+                    return conteo;
+                })
+                .map(conteo -> new EstadisticasTodoDto(
+                        conteo.values().stream().mapToLong(Long::longValue).sum(), conteo));
+
+        // TIMEOUT, BULKHEAD, CIRCUIT BREAKER Y REINTENTOS (leer el stream es idempotente)
+        return protegerLectura(llamada, TIME_LIMITER_STREAM)
+                .doOnSuccess(stats -> log.info("Contadas {} tareas del Todo Service", stats.total()))
+                .map(EstadisticasTodoResultado::actual)
+
+                // FALLBACK: conteo vacío marcado como DEGRADADO (nunca pasa por un cero real)
+                .onErrorResume(error -> {
+                    log.warn("Todo Service no disponible, conteo degradado: {}", error.toString());
+                    return Mono.just(EstadisticasTodoResultado.degradado());
+                });
+    }
 
-                // CONVERSIÓN DE DATOS REACTIVA:
-                .bodyToFlux(Map.class)  // JSON Array → Flux<Map> (stream de objetos)
-                .map(map -> (Map<String, Object>) map)  // Cast explícito para tipo seguro
-                .collectList()  // Flux<Map> → Mono<List<Map>> (agrupar stream en lista)
+    // ==================== MÉTODO: TAREAS PARA LA SEMILLA ====================
 
-                // ==================== RESILIENCIA Y OBSERVABILIDAD ====================
+    /**
+     * LEE ID Y ESTADO DE TODAS LAS TAREAS DEL USUARIO (STREAM NDJSON)
+     * ==============================================================
+     *
+     * Se usa una sola vez por usuario para sembrar los contadores con las tareas anteriores
+     * al outbox (ver AnalyticsService.sembrarSiFalta). Hacen falta las tareas una a una y no
+     * solo el conteo de /stats: cada tarea sembrada necesita su snapshot para que sus eventos
+     * posteriores resten el estado anterior.
+     *
+     * Sin fallback: si Todo Service falla el error llega al llamador y la semilla se reintenta.
+     *
+     * @param token JWT token del usuario autenticado
+     * @return Mono<List<TareaSemillaDto>> id y estado de cada tarea
+     */
+    public Mono<List<TareaSemillaDto>> leerTareasParaSemilla(String token) {
+        log.info("Leyendo las tareas del usuario en Todo Service para sembrar sus contadores");
 
-                // TIMEOUT: Evita que el request cuelgue indefinidamente
-                .timeout(Duration.ofSeconds(10))
+        Mono<List<TareaSemillaDto>> llamada = webClientBuilder.build()
+                .get()
+                .uri("http://todo-service/api/tareas/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .header("Authorization", "Bearer " + token)
+                .retrieve()
+                .bodyToFlux(TareaSemillaDto.class)
+                .collectList();
+
+        return protegerLectura(llamada, TIME_LIMITER_STREAM)
+                .doOnError(error -> log.error("Error leyendo tareas para la semilla en Todo Service: {}", error.toString()));
+    }
+
+    // ==================== MÉTODO: ESTADÍSTICAS AGREGADAS ====================
+
+    /**
+     * OBTIENE EL CONTEO DE TAREAS POR ESTADO DESDE TODO-SERVICE
+     * ========================================================
+     *
+     * Todo Service calcula el conteo con un GROUP BY status, así que por la red
+     * solo viaja un objeto pequeño, sin importar cuántas tareas tenga el usuario.
+     *
+     * Sin fallback: si Todo Service falla (o el circuito está abierto) el error llega al llamador.
+     *
+     * @param token JWT token del usuario autenticado
+     * @return Mono<EstadisticasTodoDto> total y conteo por estado
+     */
+    public Mono<EstadisticasTodoDto> obtenerEstadisticasUsuario(String token) {
+        log.info("Consultando estadísticas agregadas del usuario en Todo Service");
+
+        Mono<EstadisticasTodoDto> llamada = webClientBuilder.build()
+                .get()
+                .uri("http://todo-service/api/tareas/stats")
+                .header("Authorization", "Bearer " + token)
+                .retrieve()
+                .bodyToMono(EstadisticasTodoDto.class);
+
+        return protegerLectura(llamada, TIME_LIMITER_STATS)
+                .doOnSuccess(stats -> log.info("Obtenidas estadísticas de {} tareas del Todo Service", stats.total()))
+                .doOnError(error -> log.error("Error consultando estadísticas en Todo Service: {}", error.toString()));
+    }
 
-                // LOGGING DE ÉXITO: Para monitoreo y métricas
-                .doOnSuccess(tareas ->
-                        log.info("Obtenidas {} tareas del Todo Service", tareas.size())
-                )
+    // ==================== MÉTODO: ESTADÍSTICAS COMPARTIDAS ====================
 
-                // LOGGING DE ERROR: Para debugging y alertas
-                .doOnError(error ->
-                        log.error("Error consultando Todo Service: {}", error.getMessage())
-                )
+    /**
+     * ESTADÍSTICAS AGREGADAS CON COALESCING Y CACHÉ CORTA
+     * ===================================================
+     *
+     * Al abrir un dashboard varios widgets piden a la vez las estadísticas del mismo usuario.
+     * Las peticiones concurrentes se suscriben a UNA sola llamada a Todo Service (single-flight)
+     * y el resultado se reutiliza durante props.estadisticasTtl. N peticiones = 1 llamada.
+     *
+     * La clave es el usuario autenticado (el subject del token), que es a quien responde
+     * Todo Service; así nunca se comparte el resultado entre usuarios distintos.
+     * Los errores no se cachean: la siguiente petición vuelve a consultar.
+     *
+     * FALLBACK: si Todo Service falla se devuelve el último conteo conocido del usuario
+     * marcado como OBSOLETO (si no es más antiguo que props.estadisticasObsoletasMaxEdad),
+     * o un conteo vacío marcado como DEGRADADO.
+     *
+     * @param usuario usuario autenticado dueño del token
+     * @param token   JWT token del usuario autenticado
+     * @return Mono<EstadisticasTodoResultado> conteo con su calidad (ACTUAL, OBSOLETO o DEGRADADO)
+     */
+    public Mono<EstadisticasTodoResultado> obtenerEstadisticasCompartidas(String usuario, String token) {
+        return Mono.defer(() -> {
+            long ahora = System.nanoTime();
+            if (estadisticasPorUsuario.size() >= props.getEstadisticasMaxUsuarios()) {
+                estadisticasPorUsuario.values().removeIf(entrada -> !entrada.vigente(ahora));
+            }
+            return estadisticasPorUsuario.compute(usuario, (clave, actual) ->
+                    actual != null && actual.vigente(ahora) ? actual : nuevaConsulta(clave, token)
+            ).resultado();
+        }).onErrorResume(error -> Mono.just(ultimoConteoConocido(usuario)));
+    }
 
-                // FALLBACK: Si falla, devolver lista vacía (graceful degradation)
-                // Esto evita que el Auth Service falle completamente si Todo Service está caído
-                .onErrorReturn(List.of());
+    private EstadisticasEnCache nuevaConsulta(String usuario, String token) {
+        // Vigente mientras la llamada está en curso; al terminar se fija la caducidad real
+        AtomicLong caducaEn = new AtomicLong(Long.MAX_VALUE);
+        Duration ttl = props.getEstadisticasTtl();
+
+        Mono<EstadisticasTodoResultado> resultado = obtenerEstadisticasUsuario(token)
+                .map(EstadisticasTodoResultado::actual)
+                .doOnSuccess(stats -> {
+                    caducaEn.set(System.nanoTime() + ttl.toNanos());
+                    guardarUltimoConteo(usuario, stats);
+                })
+                .doOnError(error -> {
+                    caducaEn.set(Long.MIN_VALUE);
+                    estadisticasPorUsuario.computeIfPresent(usuario,
+                            (clave, entrada) -> entrada.caducaEn() == caducaEn ? null : entrada);
+                })
+                // Una sola suscripción a Todo Service; el valor se comparte durante el TTL
+                .cache(stats -> ttl, error -> Duration.ZERO, () -> Duration.ZERO);
+
+        return new EstadisticasEnCache(resultado, caducaEn);
+    }
+
+    private void guardarUltimoConteo(String usuario, EstadisticasTodoResultado stats) {
+        if (stats == null) {
+            return;
+        }
+        if (ultimosConteos.size() >= props.getEstadisticasMaxUsuarios()) {
+            Instant limite = Instant.now().minus(props.getEstadisticasObsoletasMaxEdad());
+            ultimosConteos.values().removeIf(conteo -> conteo.obtenidoEn().isBefore(limite));
+        }
+        ultimosConteos.put(usuario, stats);
+    }
+
+    private EstadisticasTodoResultado ultimoConteoConocido(String usuario) {
+        EstadisticasTodoResultado ultimo = ultimosConteos.get(usuario);
+        Instant limite = Instant.now().minus(props.getEstadisticasObsoletasMaxEdad());
+
+        if (ultimo == null || ultimo.obtenidoEn().isBefore(limite)) {
+            log.warn("Todo Service no disponible y sin conteo reciente de {}: respuesta degradada", usuario);
+            return EstadisticasTodoResultado.degradado();
+        }
+        log.warn("Todo Service no disponible: se sirve el conteo de {} obtenido en {}", usuario, ultimo.obtenidoEn());
+        return ultimo.comoObsoleto();
+    }
+
+    private record EstadisticasEnCache(Mono<EstadisticasTodoResultado> resultado, AtomicLong caducaEn) {
+
+        boolean vigente(long ahora) {
+            long caduca = caducaEn.get();
+            return caduca == Long.MAX_VALUE || (caduca != Long.MIN_VALUE && caduca - ahora > 0);
+        }
+    }
+
+    // ==================== RESILIENCIA ====================
+
+    /**
+     * APLICA TIMEOUT, BULKHEAD, CIRCUIT BREAKER Y REINTENTOS A UNA LECTURA
+     * ===================================================================
+     *
+     * Orden (de dentro hacia fuera): Bulkhead → TimeLimiter → CircuitBreaker → Retry.
+     * - Bulkhead: limita las llamadas simultáneas; si está lleno rechaza al momento.
+     * - TimeLimiter: tiempo máximo por intento (sustituye al timeout fijo de 10s).
+     * - CircuitBreaker: con Todo Service caído o lento deja de llamarlo y falla al instante.
+     * - Retry: backoff exponencial con jitter; no reintenta si el circuito está abierto
+     *   o el bulkhead lleno (ver resilience4j.retry en application.yml).
+     *
+     * Solo para peticiones GET: repetirlas no cambia nada en Todo Service.
+     * Configuración en application.yml (instancia "todoService").
+     */
+    private <T> Mono<T> protegerLectura(Mono<T> llamada, String timeLimiter) {
+        return llamada
+                .transformDeferred(BulkheadOperator.of(bulkheadRegistry.bulkhead(TODO_SERVICE)))
+                .transformDeferred(TimeLimiterOperator.of(timeLimiterRegistry.timeLimiter(timeLimiter)))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreakerRegistry.circuitBreaker(TODO_SERVICE)))
+                .transformDeferred(RetryOperator.of(retryRegistry.retry(TODO_SERVICE)));
     }
 
     // ==================== MÉTODO: HEALTH CHECK ====================
@@ -227,9 +431,9 @@ public class TodoServiceClient {
 ==================== PATRONES DE DISEÑO IMPLEMENTADOS ====================
 
 1. **CLIENT PATTERN**: Encapsula comunicación con servicio externo
-2. **CIRCUIT BREAKER**: onErrorReturn() previene cascadas de fallos
-3. **TIMEOUT PATTERN**: timeout() evita requests que cuelguen
-4. **GRACEFUL DEGRADATION**: Devuelve datos por defecto si falla
+2. **CIRCUIT BREAKER**: Resilience4j deja de llamar a un Todo Service caído y falla al instante
+3. **TIMEOUT PATTERN**: TimeLimiter evita requests que cuelguen
+4. **GRACEFUL DEGRADATION**: Último conteo conocido (OBSOLETO) o conteo vacío (DEGRADADO), siempre marcado
 5. **OBSERVABILITY**: Logging estructurado para monitoreo
 
 ==================== CONCEPTOS CLAVE PARA LA ENTREVISTA ====================
@@ -239,9 +443,9 @@ public class TodoServiceClient {
 3. **Mono/Flux**: Programación reactiva (Project Reactor)
 4. **Load Balancing**: "http://todo-service" se resuelve automáticamente
 5. **JWT Propagation**: Pasar token entre microservicios
-6. **Reactive Streams**: bodyToFlux() → map() → collectList()
-7. **Error Handling**: onErrorReturn() para resiliencia
-8. **Timeout**: Evitar requests que cuelguen indefinidamente
+6. **Reactive Streams**: bodyToFlux() → reduceWith() (agregar sin acumular la lista)
+7. **Error Handling**: onErrorResume() con respuestas marcadas como OBSOLETO/DEGRADADO
+8. **Bulkhead + Retry**: Límite de llamadas simultáneas y reintentos con jitter solo en GET
 
 ==================== FLUJO DE COMUNICACIÓN ENTRE MICROSERVICIOS ====================
 
@@ -266,25 +470,26 @@ CLIENT REQUEST          AUTH SERVICE           TODO SERVICE           DATABASE
 
 ==================== POSIBLES PREGUNTAS DE ENTREVISTA ====================
 
-Q: "¿Por qué usas Mono<List> en lugar de Flux directamente?"
-A: "Flux es un stream infinito, pero necesito una lista completa para
-   el cliente. collectList() agrupa todo el Flux en una lista."
+Q: "¿Por qué reduceWith() en lugar de collectList()?"
+A: "Para las estadísticas solo necesito contar por estado. Acumulando mientras
+   llega el stream, la memoria depende del número de estados y no del de tareas."
 
 Q: "¿Qué pasa si Todo Service está caído?"
-A: "onErrorReturn(List.of()) devuelve lista vacía. El Auth Service
-   sigue funcionando, solo sin datos de tareas (graceful degradation)."
+A: "Tras unos fallos el circuit breaker se abre y las llamadas fallan al instante,
+   sin esperar timeouts. Se responde con el último conteo conocido marcado como
+   OBSOLETO, o con uno vacío marcado como DEGRADADO; nunca como si fuera real."
 
-Q: "¿Por qué timeout de 10 segundos para tareas y 5 para health check?"
-A: "Health checks deben ser rápidos. Obtener tareas puede tomar más tiempo
-   si hay muchos datos, pero 10s es un límite razonable."
+Q: "¿Por qué límites de tiempo distintos para /stats y /stream?"
+A: "/stats devuelve un objeto pequeño y debe ser rápido. El stream recorre todas
+   las tareas del usuario y puede tardar más."
 
 Q: "¿Cómo testearías este cliente?"
 A: "MockWebServer para simular Todo Service, verificar headers,
    timeouts, y casos de error. TestContainers para tests de integración."
 
 Q: "¿Cómo implementarías retry logic?"
-A: "Con .retry(3) o .retryWhen() para reintentos exponenciales.
-   También circuit breaker con Resilience4j."
+A: "Con el Retry de Resilience4j: backoff exponencial con jitter, solo para GET
+   (idempotentes) y sin reintentar si el circuito está abierto o el bulkhead lleno."
 
 ==================== EJEMPLO DE USO EN OTRO SERVICIO ====================
 
@@ -299,11 +504,12 @@ public class UserController {
 
         String token = authHeader.replace("Bearer ", "");
 
-        return todoClient.obtenerTareasUsuario(token)
-                .map(tareas -> {
+        return todoClient.contarTareasUsuario(token)
+                .map(resultado -> {
                     Map<String, Object> dashboard = new HashMap<>();
-                    dashboard.put("totalTareas", tareas.size());
-                    dashboard.put("tareas", tareas);
+                    dashboard.put("totalTareas", resultado.conteo().total());
+                    dashboard.put("porEstado", resultado.conteo().porEstado());
+                    dashboard.put("calidad", resultado.calidad());
                     return ResponseEntity.ok(dashboard);
                 });
     }
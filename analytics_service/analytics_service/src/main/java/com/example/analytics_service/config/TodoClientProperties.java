@@ -0,0 +1,64 @@
+package com.example.analytics_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Ajustes del cliente HTTP analytics -> todo-service (prefijo "todo-service.client").
+ * Se pueden sobrescribir desde el config-server como cualquier otra propiedad.
+ */
+@Data
+@ConfigurationProperties(prefix = "todo-service.client")
+public class TodoClientProperties {
+
+    // ==================== POOL DE CONEXIONES ====================
+
+    // Conexiones abiertas como máximo (por host remoto)
+    private int maxConnections = 100;
+
+    // Peticiones que pueden esperar una conexión libre; por encima se rechazan al momento
+    private int pendingAcquireMaxCount = 500;
+
+    // Tiempo máximo esperando una conexión libre del pool
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+
+    // Cierra conexiones ociosas antes de que lo haga el servidor o un balanceador intermedio
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    // Renueva las conexiones periódicamente para repartir carga entre instancias nuevas
+    private Duration maxLifeTime = Duration.ofMinutes(5);
+
+    // Cada cuánto se revisan en segundo plano las conexiones caducadas
+    private Duration evictInBackground = Duration.ofSeconds(30);
+
+    // ==================== TIMEOUTS ====================
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    // Desde que se envía la petición hasta recibir la respuesta completa de cabeceras
+    private Duration responseTimeout = Duration.ofSeconds(5);
+
+    // Máximo sin recibir datos mientras se lee el cuerpo
+    private Duration readTimeout = Duration.ofSeconds(5);
+
+    // ==================== PROTOCOLO ====================
+
+    // HTTP/2 sin TLS (h2c) con vuelta a HTTP/1.1 si el servidor no lo soporta
+    private boolean http2 = true;
+
+    // Pide respuestas comprimidas (Accept-Encoding: gzip)
+    private boolean compress = true;
+
+    // ==================== ESTADÍSTICAS COMPARTIDAS ====================
+
+    // Tiempo que se reutiliza el resultado de /api/tareas/stats por usuario
+    private Duration estadisticasTtl = Duration.ofSeconds(2);
+
+    // Usuarios por encima de los cuales se purgan las entradas caducadas
+    private int estadisticasMaxUsuarios = 10_000;
+
+    // Antigüedad máxima del último conteo conocido que se sirve como OBSOLETO si Todo Service falla
+    private Duration estadisticasObsoletasMaxEdad = Duration.ofMinutes(10);
+}
@@ -1,9 +1,18 @@
 package com.example.analytics_service.config;
 
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.concurrent.TimeUnit;
 
 /**
  * CONFIGURACIÓN DE WEBCLIENT PARA MICROSERVICIOS
@@ -18,8 +27,66 @@ import org.springframework.web.reactive.function.client.WebClient;
  * - Reemplaza RestTemplate (síncrono) con WebClient (asíncrono/reactivo)
  */
 @Configuration // Indica que esta clase contiene configuraciones de Spring
+@EnableConfigurationProperties(TodoClientProperties.class)
 public class WebClientConfig {
 
+    private static final String TIMEOUT_LECTURA = "todoServiceReadTimeout";
+
+    /**
+     * POOL DE CONEXIONES HACIA TODO-SERVICE
+     * =====================================
+     *
+     * Pool dimensionado y con caducidad de conexiones, en lugar del pool por defecto.
+     * Con metrics(true) publica en /actuator/metrics las métricas
+     * reactor.netty.connection.provider.* (activas, ociosas, pendientes...).
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider todoServiceConnectionProvider(TodoClientProperties props) {
+        return ConnectionProvider.builder("todo-service")
+                .maxConnections(props.getMaxConnections())
+                .pendingAcquireMaxCount(props.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(props.getPendingAcquireTimeout())
+                .maxIdleTime(props.getMaxIdleTime())
+                .maxLifeTime(props.getMaxLifeTime())
+                .evictInBackground(props.getEvictInBackground())
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * CLIENTE HTTP DE REACTOR NETTY
+     * =============================
+     *
+     * Timeouts de conexión, respuesta y lectura, compresión y HTTP/2 (h2c) cuando el servidor
+     * lo acepta. Las métricas reactor.netty.http.client.* se etiquetan con la ruta sin la query.
+     *
+     * - connect-timeout: establecer la conexión TCP.
+     * - response-timeout: desde que se envía la petición hasta recibir las cabeceras.
+     * - read-timeout: silencio máximo entre dos lecturas mientras llega el cuerpo (p. ej. el
+     *   stream NDJSON). Se pone al enviar cada petición y se quita al terminar la respuesta:
+     *   una conexión ociosa en el pool no lo tiene, así que solo la cierra max-idle-time.
+     */
+    @Bean
+    public HttpClient todoServiceHttpClient(ConnectionProvider todoServiceConnectionProvider,
+                                            TodoClientProperties props) {
+        HttpProtocol[] protocolos = props.isHttp2()
+                ? new HttpProtocol[]{HttpProtocol.H2C, HttpProtocol.HTTP11}
+                : new HttpProtocol[]{HttpProtocol.HTTP11};
+
+        return HttpClient.create(todoServiceConnectionProvider)
+                .protocol(protocolos)
+                .compress(props.isCompress())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) props.getConnectTimeout().toMillis())
+                .responseTimeout(props.getResponseTimeout())
+                .doOnRequest((peticion, conn) -> conn.addHandlerLast(TIMEOUT_LECTURA,
+                        new ReadTimeoutHandler(props.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS)))
+                .doAfterResponseSuccess((respuesta, conn) -> conn.removeHandler(TIMEOUT_LECTURA))
+                .metrics(true, uri -> {
+                    int query = uri.indexOf('?');
+                    return query >= 0 ? uri.substring(0, query) : uri;
+                });
+    }
+
     /**
      * WEBCLIENT BUILDER CON LOAD BALANCER
      * ===================================
@@ -41,8 +108,11 @@ public class WebClientConfig {
      */
     @Bean // Registra este método como un Bean de Spring
     @LoadBalanced // ¡MAGIA! Habilita load balancing automático
-    public WebClient.Builder webClientBuilder() {
+    public WebClient.Builder webClientBuilder(HttpClient todoServiceHttpClient) {
         return WebClient.builder()
+                // Conector con el pool y los timeouts configurados arriba
+                .clientConnector(new ReactorClientHttpConnector(todoServiceHttpClient))
+
                 // Aquí podrías agregar configuraciones adicionales:
 
                 // .defaultHeader("Content-Type", "application/json")
@@ -79,26 +149,6 @@ public class WebClientConfig {
             .build();
     }
     */
-
-    /**
-     * TIMEOUT Y CONFIGURACIONES DE CONEXIÓN
-     * (Para controlar timeouts y pool de conexiones)
-     */
-    /*
-    @Bean
-    public WebClient webClientWithTimeout(@LoadBalanced WebClient.Builder builder) {
-        HttpClient httpClient = HttpClient.create()
-            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000)  // 5 segundos timeout
-            .responseTimeout(Duration.ofMillis(5000))
-            .doOnConnected(conn ->
-                conn.addHandlerLast(new ReadTimeoutHandler(5000, TimeUnit.MILLISECONDS))
-                    .addHandlerLast(new WriteTimeoutHandler(5000, TimeUnit.MILLISECONDS)));
-
-        return builder
-            .clientConnector(new ReactorClientHttpConnector(httpClient))
-            .build();
-    }
-    */
 }
 
 /*
@@ -1,21 +1,31 @@
 package com.example.analytics_service.controller;
 
 import com.example.analytics_service.client.TodoServiceClient;
+import com.example.analytics_service.dto.EstadisticasTodoDto;
+import com.example.analytics_service.dto.EstadisticasTodoResultado;
+import com.example.analytics_service.dto.EventoTareaDto;
 import com.example.analytics_service.model.TaskAnalytics;
 import com.example.analytics_service.service.AnalyticsService;
+import com.example.analytics_service.service.IngestaEventosService;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/analytics")
 @RequiredArgsConstructor
@@ -23,6 +33,18 @@ public class AnalyticsController {
 
     private final AnalyticsService analyticsService;
     private final TodoServiceClient todoServiceClient;
+    private final IngestaEventosService ingestaEventosService;
+
+    @Value("${analytics.eventos.token}")
+    private String tokenEventos;
+
+    // Un token vacío aceptaría peticiones sin cabecera comparándolo con ""
+    @PostConstruct
+    void comprobarTokenEventos() {
+        if (tokenEventos == null || tokenEventos.isBlank()) {
+            throw new IllegalStateException("analytics.eventos.token (ANALYTICS_EVENTOS_TOKEN) no está configurado");
+        }
+    }
 
     /**
      * Endpoint público para probar que funciona
@@ -32,6 +54,23 @@ public class AnalyticsController {
         return ResponseEntity.ok("Analytics Service is running!");
     }
 
+    /**
+     * Recibe en lotes los eventos del outbox de Todo Service (llamada interna entre servicios)
+     */
+    @PostMapping("/eventos")
+    public ResponseEntity<Map<String, Object>> recibirEventos(
+            @RequestHeader(value = "X-Internal-Token", required = false) String token,
+            @RequestBody List<EventoTareaDto> eventos) {
+
+        if (token == null || !MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8), tokenEventos.getBytes(StandardCharsets.UTF_8))) {
+            return ResponseEntity.status(401).body(Map.of("error", "Token interno inválido"));
+        }
+
+        int aplicados = ingestaEventosService.procesarEventos(eventos);
+        return ResponseEntity.ok(Map.of("recibidos", eventos.size(), "aplicados", aplicados));
+    }
+
     /**
      * Crear estadísticas manualmente (para testing)
      */
@@ -62,6 +101,25 @@ public class AnalyticsController {
         return ResponseEntity.ok(analytics);
     }
 
+    /**
+     * Obtener los contadores actuales del usuario (incrementales, sin llamar a Todo Service).
+     * La primera consulta del propio usuario siembra sus tareas anteriores al outbox.
+     */
+    @GetMapping("/usuario/{username}/actual")
+    public ResponseEntity<TaskAnalytics> obtenerEstadisticasActuales(
+            @PathVariable String username,
+            HttpServletRequest request) {
+
+        String token = obtenerTokenDelRequest(request);
+        if (token != null && username.equals(obtenerUsuarioAutenticado())) {
+            analyticsService.sembrarSiFalta(username, token);
+        }
+
+        return analyticsService.obtenerEstadisticasActuales(username)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     /**
      * Obtener estadísticas de los últimos 7 días
      */
@@ -94,16 +152,15 @@ public class AnalyticsController {
         System.out.println("=== Token obtenido correctamente");
 
         try {
-            // Llamada síncrona (bloqueante)
-            List<Map<String, Object>> tareas = todoServiceClient.obtenerTareasUsuario(token).block();
+            // Llamada síncrona (bloqueante): Todo Service ya devuelve el conteo por estado.
+            // Las peticiones simultáneas del mismo usuario comparten una sola llamada.
+            EstadisticasTodoResultado resultado = todoServiceClient
+                    .obtenerEstadisticasCompartidas(obtenerUsuarioAutenticado(), token).block();
 
-            System.out.println("=== Tareas recibidas: " + tareas.size());
+            log.debug("Tareas contadas: {} ({})", resultado.conteo().total(), resultado.calidad());
 
             // Calcular estadísticas
-            Map<String, Object> estadisticas = calcularEstadisticas(username, tareas);
-            System.out.println("=== Estadísticas calculadas: " + estadisticas);
-
-            return ResponseEntity.ok(estadisticas);
+            return responderEstadisticas(username, resultado);
 
         } catch (Exception e) {
             System.out.println("=== ERROR: " + e.getMessage());
@@ -111,6 +168,30 @@ public class AnalyticsController {
         }
     }
 
+    /**
+     * Estadísticas en tiempo real desde Todo Service (VERSIÓN NO BLOQUEANTE)
+     *
+     * Devuelve un Mono: Spring MVC libera el hilo de Tomcat mientras espera a Todo Service
+     * y completa la respuesta de forma asíncrona cuando llega el resultado. Un Todo Service
+     * lento ya no deja el pool de Tomcat sin hilos.
+     */
+    @GetMapping("/usuario/{username}/tiempo-real")
+    public Mono<ResponseEntity<Map<String, Object>>> obtenerEstadisticasTiempoReal(
+            @PathVariable String username,
+            HttpServletRequest request) {
+
+        String token = obtenerTokenDelRequest(request);
+
+        if (token == null) {
+            return Mono.just(ResponseEntity.status(401).body(Map.of("error", "Token no encontrado")));
+        }
+
+        return todoServiceClient.obtenerEstadisticasCompartidas(obtenerUsuarioAutenticado(), token)
+                .map(resultado -> responderEstadisticas(username, resultado))
+                .onErrorResume(e -> Mono.just(
+                        ResponseEntity.status(500).body(Map.<String, Object>of("error", String.valueOf(e.getMessage())))));
+    }
+
     /**
      * Método auxiliar para obtener el token real del request
      */
@@ -123,21 +204,38 @@ public class AnalyticsController {
     }
 
     /**
-     * Método auxiliar para calcular estadísticas
+     * Usuario del token (subject), clave para compartir la consulta a Todo Service
      */
-    private Map<String, Object> calcularEstadisticas(String username, List<Map<String, Object>> tareas) {
+    private String obtenerUsuarioAutenticado() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication.getName();
+    }
+
+    /**
+     * 200 con las estadísticas (ACTUAL u OBSOLETO), o 503 si la respuesta es DEGRADADO:
+     * un conteo vacío no se presenta como si el usuario no tuviera tareas.
+     */
+    private ResponseEntity<Map<String, Object>> responderEstadisticas(String username,
+                                                                      EstadisticasTodoResultado resultado) {
+        Map<String, Object> estadisticas = calcularEstadisticas(username, resultado);
+        if (resultado.esDegradado()) {
+            estadisticas.put("error", "Todo Service no disponible");
+            return ResponseEntity.status(503).body(estadisticas);
+        }
+        return ResponseEntity.ok(estadisticas);
+    }
+
+    /**
+     * Método auxiliar para calcular estadísticas a partir del conteo agregado de Todo Service
+     */
+    private Map<String, Object> calcularEstadisticas(String username, EstadisticasTodoResultado resultado) {
         Map<String, Object> stats = new HashMap<>();
+        EstadisticasTodoDto conteo = resultado.conteo();
 
-        int total = tareas.size();
-        int completed = (int) tareas.stream()
-                .filter(tarea -> "COMPLETED".equals(tarea.get("status")))
-                .count();
-        int pending = (int) tareas.stream()
-                .filter(tarea -> "PENDING".equals(tarea.get("status")))
-                .count();
-        int inProgress = (int) tareas.stream()
-                .filter(tarea -> "IN_PROGRESS".equals(tarea.get("status")))
-                .count();
+        int total = (int) conteo.total();
+        int completed = (int) conteo.contar("COMPLETED");
+        int pending = (int) conteo.contar("PENDING");
+        int inProgress = (int) conteo.contar("IN_PROGRESS");
 
         double completionRate = total > 0 ? (double) completed / total * 100 : 0.0;
 
@@ -150,6 +248,12 @@ public class AnalyticsController {
         stats.put("completionRate", completionRate);
         stats.put("source", "tiempo-real");
 
+        // ACTUAL, OBSOLETO (último conteo conocido) o DEGRADADO (Todo Service no disponible)
+        stats.put("calidad", resultado.calidad());
+        if (resultado.obtenidoEn() != null) {
+            stats.put("obtenidoEn", resultado.obtenidoEn().toString());
+        }
+
         return stats;
     }
 
@@ -174,13 +278,13 @@ public class AnalyticsController {
             // 🐌 SIMULAMOS PROCESAMIENTO TRADICIONAL LENTO
             Thread.sleep(1000); // 1 segundo de delay artificial
 
-            // Llamada (simulamos RestTemplate lento)
-            List<Map<String, Object>> tareas = todoServiceClient.obtenerTareasUsuario(token).block();
+            // Llamada (simulamos RestTemplate lento); las tareas se cuentan mientras llegan
+            EstadisticasTodoResultado resultado = todoServiceClient.contarTareasUsuario(token).block();
 
             // 🐌 MÁS PROCESAMIENTO LENTO
             Thread.sleep(500); // 500ms más
 
-            Map<String, Object> estadisticas = calcularEstadisticas(username, tareas);
+            Map<String, Object> estadisticas = calcularEstadisticas(username, resultado);
 
             long endTime = System.currentTimeMillis();
             long totalTime = endTime - startTime;
@@ -0,0 +1,19 @@
+package com.example.analytics_service.dto;
+
+import java.util.Map;
+
+/**
+ * Respuesta de GET /api/tareas/stats de Todo Service.
+ *
+ * Solo trae el número de tareas por estado (unos pocos bytes),
+ * en lugar de la lista completa de tareas del usuario.
+ */
+public record EstadisticasTodoDto(long total, Map<String, Long> porEstado) {
+
+    public long contar(String status) {
+        if (porEstado == null) {
+            return 0;
+        }
+        return porEstado.getOrDefault(status, 0L);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.analytics_service.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Conteo de tareas de Todo Service junto con su calidad.
+ *
+ * ACTUAL: respuesta recién obtenida de Todo Service.
+ * OBSOLETO: Todo Service no respondió; es el último conteo conocido del usuario (obtenidoEn).
+ * DEGRADADO: Todo Service no respondió y no hay conteo anterior; el conteo va vacío.
+ */
+public record EstadisticasTodoResultado(EstadisticasTodoDto conteo, Calidad calidad, Instant obtenidoEn) {
+
+    public enum Calidad {
+        ACTUAL,
+        OBSOLETO,
+        DEGRADADO
+    }
+
+    public static EstadisticasTodoResultado actual(EstadisticasTodoDto conteo) {
+        return new EstadisticasTodoResultado(conteo, Calidad.ACTUAL, Instant.now());
+    }
+
+    public static EstadisticasTodoResultado degradado() {
+        return new EstadisticasTodoResultado(new EstadisticasTodoDto(0, Map.of()), Calidad.DEGRADADO, null);
+    }
+
+    public EstadisticasTodoResultado comoObsoleto() {
+        return new EstadisticasTodoResultado(conteo, Calidad.OBSOLETO, obtenidoEn);
+    }
+
+    public boolean esDegradado() {
+        return calidad == Calidad.DEGRADADO;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.analytics_service.dto;
+
+import java.time.Instant;
+
+/**
+ * Evento de cambio de tarea entregado por el outbox de Todo Service
+ * (POST /api/analytics/eventos).
+ *
+ * tipo: CREADA, ACTUALIZADA o ELIMINADA. eventoId es creciente para una misma tarea,
+ * lo que permite descartar duplicados y eventos atrasados.
+ */
+public record EventoTareaDto(
+        long eventoId,
+        String tipo,
+        long tareaId,
+        String username,
+        String status,
+        Instant timestamp
+) {
+}
@@ -0,0 +1,11 @@
+package com.example.analytics_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Tarea de Todo Service leída del stream para sembrar snapshots y contadores de un usuario
+ * (IngestaEventosService.sembrarContadores). El resto de campos del JSON se descartan.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record TareaSemillaDto(Long id, String status) {
+}
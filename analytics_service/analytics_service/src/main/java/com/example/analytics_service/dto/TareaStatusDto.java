@@ -0,0 +1,11 @@
+package com.example.analytics_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Vista mínima de una tarea de Todo Service: analytics solo necesita el estado.
+ * El resto de campos del JSON se descartan al decodificar.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record TareaStatusDto(String status) {
+}
@@ -0,0 +1,33 @@
+package com.example.analytics_service.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Último estado conocido de cada tarea según los eventos de Todo Service.
+ * Guarda el id del último evento aplicado para que la ingesta sea idempotente.
+ */
+@Entity
+@Table(name = "task_snapshots", indexes = {
+        @Index(name = "idx_task_snapshots_username", columnList = "username")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TareaSnapshot {
+
+    @Id
+    private Long tareaId;
+
+    private String username;
+
+    private String status;
+
+    private boolean eliminada;
+
+    private long ultimoEventoId;
+}
@@ -10,7 +10,11 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "task_analytics")
+@Table(name = "task_analytics", uniqueConstraints = {
+        // Una fila por usuario y día: la actualizan los upserts de TaskAnalyticsRepository.sumarContadores.
+        // La crea la migración V1 (que antes borra los duplicados), no ddl-auto
+        @UniqueConstraint(name = "uk_task_analytics_username_date", columnNames = {"username", "date"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -29,6 +33,7 @@ public class TaskAnalytics {
     private Integer totalTasks = 0;
     private Integer completedTasks = 0;
     private Integer pendingTasks = 0;
+    private Integer inProgressTasks = 0;
 
     private LocalDateTime createdAt;
 
@@ -0,0 +1,18 @@
+package com.example.analytics_service.repository;
+
+import com.example.analytics_service.model.TareaSnapshot;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TareaSnapshotRepository extends JpaRepository<TareaSnapshot, Long> {
+
+    // SELECT ... FOR UPDATE: dos lotes concurrentes sobre la misma tarea no calculan el mismo delta
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<TareaSnapshot> findByTareaIdIn(Collection<Long> tareaIds);
+}
@@ -2,6 +2,9 @@ package com.example.analytics_service.repository;
 
 import com.example.analytics_service.model.TaskAnalytics;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -19,4 +22,61 @@ public interface TaskAnalyticsRepository extends JpaRepository<TaskAnalytics, Lo
 
     // Buscar estadísticas de los últimos días para un usuario
     List<TaskAnalytics> findTop7ByUsernameOrderByDateDesc(String username);
+
+    // Última foto de contadores del usuario (lectura O(1) por el índice username, date)
+    Optional<TaskAnalytics> findFirstByUsernameOrderByDateDesc(String username);
+
+    // Upsert atómico de los contadores del día: si la fila aún no existe parte de los
+    // valores del último día anterior y les suma los deltas; si existe, suma los deltas
+    @Modifying
+    @Query(value = "INSERT INTO task_analytics " +
+            "(username, date, total_tasks, completed_tasks, pending_tasks, in_progress_tasks, created_at) " +
+            "SELECT :username, :fecha, " +
+            "COALESCE(MAX(prev.p_total), 0) + :total, " +
+            "COALESCE(MAX(prev.p_completadas), 0) + :completadas, " +
+            "COALESCE(MAX(prev.p_pendientes), 0) + :pendientes, " +
+            "COALESCE(MAX(prev.p_en_progreso), 0) + :enProgreso, " +
+            "NOW(6) " +
+            "FROM (SELECT total_tasks AS p_total, completed_tasks AS p_completadas, " +
+            "             pending_tasks AS p_pendientes, in_progress_tasks AS p_en_progreso " +
+            "      FROM task_analytics WHERE username = :username AND date < :fecha " +
+            "      ORDER BY date DESC LIMIT 1) prev " +
+            "ON DUPLICATE KEY UPDATE " +
+            "task_analytics.total_tasks = task_analytics.total_tasks + :total, " +
+            "task_analytics.completed_tasks = task_analytics.completed_tasks + :completadas, " +
+            "task_analytics.pending_tasks = task_analytics.pending_tasks + :pendientes, " +
+            "task_analytics.in_progress_tasks = COALESCE(task_analytics.in_progress_tasks, 0) + :enProgreso",
+            nativeQuery = true)
+    int sumarContadores(@Param("username") String username,
+                        @Param("fecha") LocalDate fecha,
+                        @Param("total") int total,
+                        @Param("completadas") int completadas,
+                        @Param("pendientes") int pendientes,
+                        @Param("enProgreso") int enProgreso);
+
+    // Los días posteriores ya guardan el acumulado: un delta con fecha anterior
+    // (lote atrasado entregado después de medianoche) también se les suma
+    @Modifying
+    @Query(value = "UPDATE task_analytics SET " +
+            "total_tasks = total_tasks + :total, " +
+            "completed_tasks = completed_tasks + :completadas, " +
+            "pending_tasks = pending_tasks + :pendientes, " +
+            "in_progress_tasks = COALESCE(in_progress_tasks, 0) + :enProgreso " +
+            "WHERE username = :username AND date > :fecha",
+            nativeQuery = true)
+    int sumarContadoresPosteriores(@Param("username") String username,
+                                   @Param("fecha") LocalDate fecha,
+                                   @Param("total") int total,
+                                   @Param("completadas") int completadas,
+                                   @Param("pendientes") int pendientes,
+                                   @Param("enProgreso") int enProgreso);
+
+    @Query(value = "SELECT COUNT(*) FROM task_analytics_semillas WHERE username = :username", nativeQuery = true)
+    long contarSemillas(@Param("username") String username);
+
+    // 0 si el usuario ya estaba sembrado; una petición concurrente espera al commit de la primera
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO task_analytics_semillas (username, sembrado_en) VALUES (:username, NOW(6))",
+            nativeQuery = true)
+    int marcarSembrado(@Param("username") String username);
 }
\ No newline at end of file
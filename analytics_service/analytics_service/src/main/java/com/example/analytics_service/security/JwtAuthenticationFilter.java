@@ -1,20 +1,18 @@
 package com.example.analytics_service.security;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.security.Key;
 import java.util.Collections;
 
 //@Component
@@ -98,33 +96,40 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     // ==================== CONFIGURACIÓN DE SEGURIDAD JWT ====================
 
     /**
-     * CLAVE SECRETA PARA FIRMAR/VERIFICAR TOKENS JWT
-     * =============================================
+     * VERIFICADOR DE TOKENS JWT (ver JwtConfig)
+     * ========================================
      *
-     * ⚠️  CRÍTICO PARA SEGURIDAD:
-     * - Esta clave DEBE ser la MISMA en todos los microservicios
-     * - Debe tener al menos 256 bits (32 caracteres) para HMAC-SHA256
-     * - En producción: usar variables de entorno o vault de secretos
-     * - NUNCA hardcodear en código de producción
-     *
-     * MECANISMO:
-     * 1. Auth Service firma tokens con esta clave
-     * 2. Otros servicios verifican tokens con la MISMA clave
-     * 3. Si las claves no coinciden = tokens inválidos
+     * Auth Service firma los tokens con RS256 y publica sus claves públicas en
+     * /.well-known/jwks.json. Aquí solo se necesita la clave pública:
+     * - No hay secreto compartido entre microservicios
+     * - La clave se elige por el "kid" de la cabecera del token
+     * - Cuando Auth Service rota la clave, el decoder descarga el JWKS nuevo él solo
      */
-    private static final String SECRET_KEY = "mi-clave-super-secreta-mas-larga-que-256-bits-segura";
+    private final JwtDecoder jwtDecoder;
 
     /**
-     * GENERA LA CLAVE CRIPTOGRÁFICA PARA JWT
-     * ====================================
+     * TOKENS YA VERIFICADOS
+     * =====================
      *
-     * Convierte el string SECRET_KEY en un objeto Key que JJWT puede usar.
-     * HMAC-SHA256 requiere claves de al menos 256 bits.
+     * El cliente envía el mismo token en cada petición durante toda su vida.
+     * La firma se verifica la primera vez; las siguientes peticiones salen de la caché.
+     */
+    private final CacheTokensVerificados tokensVerificados;
+
+    /**
+     * TOKENS REVOCADOS
+     * ================
      *
-     * @return Key objeto criptográfico para firmar/verificar
+     * Copia en memoria de las revocaciones de Auth Service (logout, usuario borrado).
+     * Se mira en cada petición, también cuando el token sale de la caché.
      */
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    private final RevocacionesTokens revocaciones;
+
+    public JwtAuthenticationFilter(JwtDecoder jwtDecoder, CacheTokensVerificados tokensVerificados,
+                                   RevocacionesTokens revocaciones) {
+        this.jwtDecoder = jwtDecoder;
+        this.tokensVerificados = tokensVerificados;
+        this.revocaciones = revocaciones;
     }
 
     // ==================== FILTRO PRINCIPAL ====================
@@ -168,8 +173,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             final String jwt = authHeader.substring(7); // Quitar "Bearer "
 
             // PASO 4: EXTRAER USERNAME DEL TOKEN
-            // Decodifica el JWT y extrae el "subject" (username)
-            final String username = extractUsername(jwt);
+            // Decodifica el JWT y extrae el "subject" (username), o lo toma de la caché
+            // si este mismo token ya se verificó antes. Un token revocado no autentica.
+            final CacheTokensVerificados.TokenVerificado token = tokensVerificados.obtener(jwt, this::verificar);
+            final String username = revocaciones.estaRevocado(token) ? null : token.username();
 
             // PASO 5: VERIFICAR SI NECESITAMOS AUTENTICAR
             // Si hay username válido Y no hay autenticación previa en este request
@@ -211,29 +218,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     // ==================== UTILIDADES JWT ====================
 
 
-//     //* EXTRAE EL USERNAME (SUBJECT) DE UN TOKEN JWT
+//     //* VERIFICA UN TOKEN JWT Y EXTRAE USERNAME Y EXPIRACIÓN
 //     //* ==========================================
 //     *
 //     * Proceso de validación:
-//     * 1. Parsea el token JWT usando la clave secreta
+//     * 1. Parsea el token JWT y busca la clave pública por su "kid"
 //     * 2. Verifica la firma criptográfica
 //     * 3. Verifica que no haya expirado
-//     * 4. Extrae el "subject" (username) del payload
+//     * 4. Extrae el "subject" (username) y la expiración del payload
 //     *
 //     * @param token Token JWT como string
-//     * @return String username del token
-//     * @throws JwtException si el token es inválido, expirado o mal firmado
-
-    private String extractUsername(String token) {
-        // PARSEO Y VALIDACIÓN COMPLETA DEL TOKEN
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())     // Usar la misma clave para verificar
-                .build()                           // Construir el parser
-                .parseClaimsJws(token)             // Parsear y VALIDAR el token
-                .getBody();                        // Obtener el payload (claims)
-
-        // EXTRAER EL SUBJECT (USERNAME)
-        return claims.getSubject();
+//     * @return TokenVerificado username y expiración del token
+//     * @throws JwtException (Spring Security) si el token es inválido, expirado o mal firmado
+
+    private CacheTokensVerificados.TokenVerificado verificar(String token) {
+        // PARSEO Y VALIDACIÓN COMPLETA DEL TOKEN (firma RS256, exp y nbf)
+        Jwt jwt = jwtDecoder.decode(token);
+
+        // EXTRAER EL SUBJECT (USERNAME) Y LA EXPIRACIÓN (hasta cuándo vale la entrada en caché)
+        return new CacheTokensVerificados.TokenVerificado(
+                jwt.getSubject(), jwt.getId(), jwt.getIssuedAt(), jwt.getExpiresAt());
     }
 
     /*
@@ -245,14 +249,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
      */
     /*
     private List<SimpleGrantedAuthority> extractAuthorities(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Jwt jwt = jwtDecoder.decode(token);
 
         // Asumir que roles están en el claim "roles" como ["ROLE_USER", "ROLE_ADMIN"]
-        List<String> roles = claims.get("roles", List.class);
+        List<String> roles = jwt.getClaimAsStringList("roles");
 
         return roles.stream()
                 .map(SimpleGrantedAuthority::new)
@@ -265,16 +265,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
      */
     /*
     private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return extractExpiration(token).isBefore(Instant.now());
     }
 
-    private Date extractExpiration(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getExpiration();
+    private Instant extractExpiration(String token) {
+        return jwtDecoder.decode(token).getExpiresAt();
     }
     */
 }
@@ -310,7 +305,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 3. **UsernamePasswordAuthenticationToken**: Representa autenticación exitosa
 4. **FilterChain**: Patrón Chain of Responsibility en Spring Security
 5. **JWT Claims**: Payload del token con información del usuario
-6. **HMAC-SHA256**: Algoritmo criptográfico para firmar tokens
+6. **RS256 + JWKS**: Auth Service firma con su clave privada; los demás verifican con la pública
 7. **Bearer Token**: Estándar para enviar tokens en headers HTTP
 
 ==================== POSIBLES PREGUNTAS DE ENTREVISTA ====================
@@ -0,0 +1,130 @@
+package com.example.analytics_service.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Copia en memoria de las revocaciones de access tokens de auth-service.
+ *
+ * Copia de RevocacionesTokens de To-do-service, donde está explicado el funcionamiento;
+ * cualquier cambio se hace en las dos.
+ */
+@Slf4j
+@Component
+public class RevocacionesTokens {
+
+    // jti -> expiración del token revocado
+    private final Map<String, Instant> tokensRevocados = new ConcurrentHashMap<>();
+
+    // SHA-256 del username -> los tokens emitidos antes de este instante están revocados
+    private final Map<String, RevocacionUsuario> usuariosRevocados = new ConcurrentHashMap<>();
+
+    private final RestTemplate authServiceRestTemplate;
+    private final String url;
+    private final String tokenInterno;
+    private final Duration solape;
+
+    // Hora de auth-service en la última lectura (null: aún no se ha cargado la lista completa)
+    private volatile Instant sincronizadoHasta;
+
+    public RevocacionesTokens(RestTemplate authServiceRestTemplate,
+                              @Value("${jwt.revocaciones.url}") String url,
+                              @Value("${jwt.revocaciones.token}") String tokenInterno,
+                              @Value("${jwt.revocaciones.solape:10s}") Duration solape) {
+        if (tokenInterno == null || tokenInterno.isBlank()) {
+            throw new IllegalStateException("jwt.revocaciones.token (AUTH_REVOCACIONES_TOKEN) no está configurado");
+        }
+        this.authServiceRestTemplate = authServiceRestTemplate;
+        this.url = url;
+        this.tokenInterno = tokenInterno;
+        this.solape = solape;
+    }
+
+    public boolean estaRevocado(CacheTokensVerificados.TokenVerificado token) {
+        if (token.jti() != null && tokensRevocados.containsKey(token.jti())) {
+            return true;
+        }
+        // Sin revocaciones por usuario (lo normal) no hace falta calcular la huella
+        if (usuariosRevocados.isEmpty() || token.username() == null) {
+            return false;
+        }
+        RevocacionUsuario revocacion = usuariosRevocados.get(huellaUsuario(token.username()));
+        return revocacion != null
+                && (token.emitido() == null || token.emitido().isBefore(revocacion.revocadoEn()));
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocaciones.intervalo-ms:5000}")
+    public void sincronizar() {
+        Instant desde = sincronizadoHasta != null ? sincronizadoHasta.minus(solape) : null;
+        URI uri = desde != null
+                ? UriComponentsBuilder.fromUriString(url).queryParam("desde", desde).build().toUri()
+                : URI.create(url);
+
+        try {
+            HttpHeaders cabeceras = new HttpHeaders();
+            cabeceras.set("X-Internal-Token", tokenInterno);
+            RespuestaRevocaciones respuesta = authServiceRestTemplate.exchange(
+                    uri, HttpMethod.GET, new HttpEntity<>(cabeceras), RespuestaRevocaciones.class).getBody();
+            if (respuesta == null) {
+                return;
+            }
+            respuesta.revocations().forEach(this::aplicar);
+            sincronizadoHasta = respuesta.until();
+        } catch (RestClientException e) {
+            log.warn("No se pudieron leer las revocaciones de auth-service: {}", e.getMessage());
+        }
+
+        Instant ahora = Instant.now();
+        tokensRevocados.values().removeIf(expiracion -> expiracion.isBefore(ahora));
+        usuariosRevocados.values().removeIf(revocacion -> revocacion.caducaEn().isBefore(ahora));
+    }
+
+    private void aplicar(Revocacion revocacion) {
+        if (revocacion.jti() != null) {
+            tokensRevocados.put(revocacion.jti(), revocacion.expiresAt());
+        } else if (revocacion.sujeto() != null) {
+            usuariosRevocados.merge(revocacion.sujeto(),
+                    new RevocacionUsuario(revocacion.revokedAt(), revocacion.expiresAt()),
+                    (anterior, nueva) -> anterior.revocadoEn().isAfter(nueva.revocadoEn()) ? anterior : nueva);
+        }
+    }
+
+    // Misma huella que TokenRevocationService.huellaUsuario en auth-service (RevocacionesTokensTest)
+    static String huellaUsuario(String username) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(username.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private record RevocacionUsuario(Instant revocadoEn, Instant caducaEn) {
+    }
+
+    // JSON de GET /auth/revocations
+    record RespuestaRevocaciones(Instant until, List<Revocacion> revocations) {
+    }
+
+    record Revocacion(String jti, String sujeto, Instant revokedAt, Instant expiresAt) {
+    }
+}
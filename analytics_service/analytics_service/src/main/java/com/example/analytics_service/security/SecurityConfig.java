@@ -1,5 +1,6 @@
 package com.example.analytics_service.security;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -30,7 +31,11 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
                         // Endpoints públicos
+                        // Despacho async de los endpoints que devuelven Mono: la petición original ya se autenticó
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         .requestMatchers("/api/analytics/health").permitAll()
+                        // Ingesta interna del outbox de todo-service: se valida con X-Internal-Token
+                        .requestMatchers("/api/analytics/eventos").permitAll()
                         // Todos los demás requieren autenticación
                         .anyRequest().authenticated()
                 )
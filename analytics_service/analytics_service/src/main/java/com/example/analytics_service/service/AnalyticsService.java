@@ -1,5 +1,7 @@
 package com.example.analytics_service.service;
 
+import com.example.analytics_service.client.TodoServiceClient;
+import com.example.analytics_service.dto.TareaSemillaDto;
 import com.example.analytics_service.model.TaskAnalytics;
 import com.example.analytics_service.repository.TaskAnalyticsRepository;
 import lombok.RequiredArgsConstructor;
@@ -16,6 +18,8 @@ import java.util.Optional;
 public class AnalyticsService {
 
     private final TaskAnalyticsRepository analyticsRepository;
+    private final TodoServiceClient todoServiceClient;
+    private final IngestaEventosService ingestaEventosService;
 
     /**
      * Crear estadísticas simples para un usuario
@@ -24,17 +28,47 @@ public class AnalyticsService {
                                            int totalTasks, int completedTasks, int pendingTasks) {
         log.info("Creando estadísticas para usuario: {} en fecha: {}", username, fecha);
 
-        TaskAnalytics analytics = TaskAnalytics.builder()
-                .username(username)
-                .date(fecha)
-                .totalTasks(totalTasks)
-                .completedTasks(completedTasks)
-                .pendingTasks(pendingTasks)
-                .build();
+        // Hay una sola fila por usuario y día: si ya existe se sobrescriben sus contadores
+        TaskAnalytics analytics = analyticsRepository.findByUsernameAndDate(username, fecha)
+                .orElseGet(() -> TaskAnalytics.builder()
+                        .username(username)
+                        .date(fecha)
+                        .inProgressTasks(0)
+                        .build());
+
+        analytics.setTotalTasks(totalTasks);
+        analytics.setCompletedTasks(completedTasks);
+        analytics.setPendingTasks(pendingTasks);
 
         return analyticsRepository.save(analytics);
     }
 
+    /**
+     * Obtener los contadores actuales de un usuario (mantenidos de forma incremental
+     * a partir de los eventos de Todo Service; no consulta Todo Service)
+     */
+    public Optional<TaskAnalytics> obtenerEstadisticasActuales(String username) {
+        log.info("Obteniendo contadores actuales para usuario: {}", username);
+        return analyticsRepository.findFirstByUsernameOrderByDateDesc(username);
+    }
+
+    /**
+     * Sembrar una vez los contadores del usuario con sus tareas anteriores al outbox.
+     * Necesita el token del propio usuario para leer sus tareas en Todo Service; si la
+     * lectura falla se sigue con los contadores actuales y se reintenta en la próxima petición.
+     */
+    public void sembrarSiFalta(String username, String token) {
+        if (analyticsRepository.contarSemillas(username) > 0) {
+            return;
+        }
+        try {
+            List<TareaSemillaDto> tareas = todoServiceClient.leerTareasParaSemilla(token).block();
+            ingestaEventosService.sembrarContadores(username, tareas != null ? tareas : List.of());
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron sembrar los contadores de {}: {}", username, e.getMessage());
+        }
+    }
+
     /**
      * Obtener estadísticas por usuario y fecha
      */
@@ -0,0 +1,165 @@
+package com.example.analytics_service.service;
+
+import com.example.analytics_service.dto.EventoTareaDto;
+import com.example.analytics_service.dto.TareaSemillaDto;
+import com.example.analytics_service.model.TareaSnapshot;
+import com.example.analytics_service.repository.TareaSnapshotRepository;
+import com.example.analytics_service.repository.TaskAnalyticsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IngestaEventosService {
+
+    private static final int TOTAL = 0;
+    private static final int COMPLETADAS = 1;
+    private static final int PENDIENTES = 2;
+    private static final int EN_PROGRESO = 3;
+
+    // Misma zona que LocalDate.now() en el resto del servicio
+    private static final ZoneId ZONA = ZoneId.systemDefault();
+
+    private final TareaSnapshotRepository snapshotRepository;
+    private final TaskAnalyticsRepository analyticsRepository;
+
+    /**
+     * Aplica un lote de eventos del outbox de Todo Service.
+     * La entrega es "al menos una vez": los eventos ya aplicados (mismo id o anterior) se ignoran.
+     *
+     * Cada evento aplicado se traduce en un delta sobre los contadores del usuario (total,
+     * completadas, pendientes, en progreso). Los deltas se agrupan por usuario y por el día del
+     * propio evento (no el de la ingesta: un atraso vaciado después de medianoche cuenta en su
+     * día) y se suman a esa fila con un upsert atómico y a las de los días posteriores, en la
+     * misma transacción que los snapshots.
+     *
+     * @return número de eventos aplicados
+     */
+    @Transactional
+    public int procesarEventos(List<EventoTareaDto> eventos) {
+        // Un único SELECT para todas las tareas del lote
+        List<Long> ids = eventos.stream().map(EventoTareaDto::tareaId).distinct().toList();
+        Map<Long, TareaSnapshot> snapshots = snapshotRepository.findByTareaIdIn(ids).stream()
+                .collect(Collectors.toMap(TareaSnapshot::getTareaId, Function.identity()));
+
+        Map<DiaUsuario, int[]> deltas = new HashMap<>();
+        int aplicados = 0;
+        for (EventoTareaDto evento : eventos) {
+            TareaSnapshot actual = snapshots.get(evento.tareaId());
+            if (actual != null && evento.eventoId() <= actual.getUltimoEventoId()) {
+                continue;
+            }
+
+            TareaSnapshot nuevo = TareaSnapshot.builder()
+                    .tareaId(evento.tareaId())
+                    .username(evento.username())
+                    .status("ELIMINADA".equals(evento.tipo()) && actual != null ? actual.getStatus() : evento.status())
+                    .eliminada("ELIMINADA".equals(evento.tipo()))
+                    .ultimoEventoId(evento.eventoId())
+                    .build();
+
+            DiaUsuario dia = new DiaUsuario(evento.username(), LocalDate.ofInstant(evento.timestamp(), ZONA));
+            int[] delta = deltas.computeIfAbsent(dia, d -> new int[4]);
+            if (actual != null && !actual.isEliminada()) {
+                contar(delta, actual.getStatus(), -1);
+            }
+            if (!nuevo.isEliminada()) {
+                contar(delta, nuevo.getStatus(), +1);
+            }
+
+            snapshots.put(evento.tareaId(), nuevo);
+            aplicados++;
+        }
+
+        snapshotRepository.saveAll(snapshots.values());
+
+        deltas.forEach((dia, delta) -> {
+            if (delta[TOTAL] != 0 || delta[COMPLETADAS] != 0 || delta[PENDIENTES] != 0 || delta[EN_PROGRESO] != 0) {
+                sumar(dia.username(), dia.fecha(), delta);
+            }
+        });
+
+        log.info("Procesados {} eventos de tareas ({} aplicados)", eventos.size(), aplicados);
+        return aplicados;
+    }
+
+    /**
+     * Siembra una sola vez los snapshots y contadores de un usuario con las tareas que ya tenía
+     * en Todo Service antes de existir el outbox (esas tareas nunca emitieron CREADA).
+     *
+     * Solo se siembran las tareas sin snapshot; las que ya tienen uno están contadas por sus
+     * eventos. Los snapshots sembrados llevan ultimoEventoId 0, así cualquier evento pendiente
+     * de esa tarea se aplica después como una transición normal (estado sembrado -> nuevo).
+     *
+     * @return número de tareas sembradas (0 si el usuario ya estaba sembrado)
+     */
+    @Transactional
+    public int sembrarContadores(String username, List<TareaSemillaDto> tareas) {
+        if (analyticsRepository.marcarSembrado(username) == 0) {
+            return 0;
+        }
+
+        List<Long> ids = tareas.stream().map(TareaSemillaDto::id).distinct().toList();
+        Set<Long> conSnapshot = snapshotRepository.findByTareaIdIn(ids).stream()
+                .map(TareaSnapshot::getTareaId)
+                .collect(Collectors.toCollection(HashSet::new));
+
+        int[] delta = new int[4];
+        List<TareaSnapshot> sembrados = new ArrayList<>();
+        for (TareaSemillaDto tarea : tareas) {
+            if (!conSnapshot.add(tarea.id())) {
+                continue;
+            }
+            sembrados.add(TareaSnapshot.builder()
+                    .tareaId(tarea.id())
+                    .username(username)
+                    .status(tarea.status())
+                    .eliminada(false)
+                    .ultimoEventoId(0)
+                    .build());
+            contar(delta, tarea.status(), +1);
+        }
+
+        snapshotRepository.saveAll(sembrados);
+        // También con delta cero: el usuario pasa a tener fila aunque no tenga tareas
+        sumar(username, LocalDate.now(ZONA), delta);
+
+        log.info("Sembradas {} tareas previas al outbox para {}", sembrados.size(), username);
+        return sembrados.size();
+    }
+
+    private void sumar(String username, LocalDate fecha, int[] delta) {
+        analyticsRepository.sumarContadores(username, fecha,
+                delta[TOTAL], delta[COMPLETADAS], delta[PENDIENTES], delta[EN_PROGRESO]);
+        analyticsRepository.sumarContadoresPosteriores(username, fecha,
+                delta[TOTAL], delta[COMPLETADAS], delta[PENDIENTES], delta[EN_PROGRESO]);
+    }
+
+    private static void contar(int[] delta, String status, int signo) {
+        delta[TOTAL] += signo;
+        if ("COMPLETED".equals(status)) {
+            delta[COMPLETADAS] += signo;
+        } else if ("PENDING".equals(status)) {
+            delta[PENDIENTES] += signo;
+        } else if ("IN_PROGRESS".equals(status)) {
+            delta[EN_PROGRESO] += signo;
+        }
+    }
+
+    private record DiaUsuario(String username, LocalDate fecha) {
+    }
+}
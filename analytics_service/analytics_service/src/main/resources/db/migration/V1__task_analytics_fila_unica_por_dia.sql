@@ -0,0 +1,46 @@
+-- Una fila por usuario y día en task_analytics, necesaria para el upsert de
+-- TaskAnalyticsRepository.sumarContadores (ON DUPLICATE KEY UPDATE).
+-- Hasta ahora la tabla la creaba ddl-auto: update, que no añade la restricción si ya hay
+-- duplicados. Aquí se crea la tabla si falta, se borran los duplicados y se añade la clave.
+CREATE TABLE IF NOT EXISTS task_analytics (
+    id                BIGINT       NOT NULL AUTO_INCREMENT,
+    username          VARCHAR(255),
+    date              DATE,
+    total_tasks       INT,
+    completed_tasks   INT,
+    pending_tasks     INT,
+    in_progress_tasks INT,
+    created_at        DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- Bases de datos anteriores a los contadores incrementales: falta in_progress_tasks
+SET @falta_columna := (SELECT COUNT(*) = 0 FROM information_schema.columns
+                       WHERE table_schema = DATABASE() AND table_name = 'task_analytics'
+                         AND column_name = 'in_progress_tasks');
+SET @ddl := IF(@falta_columna, 'ALTER TABLE task_analytics ADD COLUMN in_progress_tasks INT', 'DO 0');
+PREPARE sentencia FROM @ddl;
+EXECUTE sentencia;
+DEALLOCATE PREPARE sentencia;
+
+-- De cada (username, date) repetido se conserva la última fila escrita (id mayor):
+-- crearEstadisticas guardaba una foto completa del día en cada llamada
+DELETE ta FROM task_analytics ta
+JOIN (SELECT username, date, MAX(id) AS id_conservado
+      FROM task_analytics
+      GROUP BY username, date
+      HAVING COUNT(*) > 1) duplicados
+  ON ta.username = duplicados.username
+ AND ta.date = duplicados.date
+ AND ta.id <> duplicados.id_conservado;
+
+-- ddl-auto pudo haber creado ya la clave en bases de datos sin duplicados
+SET @falta_clave := (SELECT COUNT(*) = 0 FROM information_schema.statistics
+                     WHERE table_schema = DATABASE() AND table_name = 'task_analytics'
+                       AND index_name = 'uk_task_analytics_username_date');
+SET @ddl := IF(@falta_clave,
+               'ALTER TABLE task_analytics ADD CONSTRAINT uk_task_analytics_username_date UNIQUE (username, date)',
+               'DO 0');
+PREPARE sentencia FROM @ddl;
+EXECUTE sentencia;
+DEALLOCATE PREPARE sentencia;
@@ -0,0 +1,8 @@
+-- Usuarios cuyos contadores ya se sembraron con las tareas que tenían en Todo Service
+-- antes de existir el outbox (IngestaEventosService.sembrarContadores). La clave primaria
+-- hace que la semilla se aplique una sola vez por usuario aunque lleguen peticiones a la vez.
+CREATE TABLE IF NOT EXISTS task_analytics_semillas (
+    username    VARCHAR(255) NOT NULL,
+    sembrado_en DATETIME(6)  NOT NULL,
+    PRIMARY KEY (username)
+) ENGINE = InnoDB;
@@ -0,0 +1,157 @@
+package com.example.analytics_service.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prueba de carga que compara el techo de concurrencia con hilos de plataforma y con
+ * hilos virtuales (perfil "virtual-threads").
+ *
+ * Sube la concurrencia por escalones contra dos instancias ya arrancadas, una por modo, y
+ * registra para cada escalón throughput, p99 y errores. El techo es el escalón a partir del
+ * cual el throughput deja de crecer. Después comprueba que el modo virtual llega al menos
+ * al mismo techo, con al menos el mismo throughput y sin peor p99 en el escalón más alto
+ * (con un margen de TOLERANCIA para el ruido de la medición):
+ *
+ *   java -jar analytics_service.jar --server.port=8083
+ *   java -jar analytics_service.jar --server.port=8093 --spring.profiles.active=virtual-threads
+ *   mvn test -Dtest=ConcurrenciaLoadTest -Dloadtest.token=<jwt> \
+ *       -Dloadtest.url.plataforma=http://localhost:8083/api/analytics/usuario/u/tradicional \
+ *       -Dloadtest.url.virtual=http://localhost:8093/api/analytics/usuario/u/tradicional
+ *
+ * El objetivo tiene que bloquear el hilo en CADA petición. tradicional lo hace (espera y llama
+ * a Todo Service sin caché); tiempo-real-sync no sirve: con un solo token casi todas las
+ * peticiones salen de la caché compartida de estadísticas y no esperan a nadie.
+ *
+ * No se ejecuta en el build normal.
+ */
+@EnabledIfSystemProperty(named = "loadtest.url.plataforma", matches = ".+")
+@EnabledIfSystemProperty(named = "loadtest.url.virtual", matches = ".+")
+class ConcurrenciaLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrenciaLoadTest.class);
+
+    private static final int[] ESCALONES = {50, 100, 200, 400, 800, 1600};
+    private static final Duration DURACION_ESCALON = Duration.ofSeconds(15);
+    private static final double TOLERANCIA = 0.10;
+
+    private final HttpClient cliente = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @Test
+    void losHilosVirtualesNoBajanElTechoDeConcurrencia() throws Exception {
+        String token = System.getProperty("loadtest.token", "");
+
+        Medicion plataforma = medir("plataforma", System.getProperty("loadtest.url.plataforma"), token);
+        Medicion virtual = medir("virtual", System.getProperty("loadtest.url.virtual"), token);
+
+        // Con la carga más baja el servicio debe responder sin errores; si no, la medición no vale
+        assertEquals(0, plataforma.escalones().get(0).errores(), "Errores con la concurrencia mínima (plataforma): revisar url/token");
+        assertEquals(0, virtual.escalones().get(0).errores(), "Errores con la concurrencia mínima (virtual): revisar url/token");
+
+        Resultado maximaPlataforma = plataforma.escalones().get(ESCALONES.length - 1);
+        Resultado maximaVirtual = virtual.escalones().get(ESCALONES.length - 1);
+        log.info("Techo plataforma ~{} ({} peticiones/s), techo virtual ~{} ({} peticiones/s)",
+                plataforma.techo(), formatear(plataforma.mejorThroughput()),
+                virtual.techo(), formatear(virtual.mejorThroughput()));
+        log.info("p99 con {} peticiones simultáneas: plataforma {} ms, virtual {} ms",
+                ESCALONES[ESCALONES.length - 1], maximaPlataforma.p99Ms(), maximaVirtual.p99Ms());
+
+        assertTrue(virtual.techo() >= plataforma.techo(),
+                "El techo con hilos virtuales (" + virtual.techo() + ") es menor que con hilos de plataforma ("
+                        + plataforma.techo() + ")");
+        assertTrue(virtual.mejorThroughput() >= plataforma.mejorThroughput() * (1 - TOLERANCIA),
+                "Throughput máximo con hilos virtuales " + formatear(virtual.mejorThroughput())
+                        + " peticiones/s frente a " + formatear(plataforma.mejorThroughput()) + " con hilos de plataforma");
+        assertTrue(maximaVirtual.p99Ms() <= maximaPlataforma.p99Ms() * (1 + TOLERANCIA),
+                "p99 con hilos virtuales " + maximaVirtual.p99Ms() + " ms frente a "
+                        + maximaPlataforma.p99Ms() + " ms con hilos de plataforma");
+    }
+
+    private Medicion medir(String modo, String url, String token) throws InterruptedException {
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+
+        log.info("Modo {}: {}", modo, url);
+        double mejorThroughput = 0;
+        int techo = ESCALONES[0];
+        List<Resultado> escalones = new ArrayList<>();
+
+        for (int concurrencia : ESCALONES) {
+            Resultado r = ejecutarEscalon(peticion, concurrencia);
+            escalones.add(r);
+            log.info("{} concurrencia={} peticiones/s={} p99={} ms errores={}",
+                    modo, concurrencia, formatear(r.throughput()), r.p99Ms(), r.errores());
+
+            // Consideramos que sigue escalando mientras el throughput crezca al menos un 10%
+            if (r.throughput() > mejorThroughput * 1.10) {
+                mejorThroughput = r.throughput();
+                techo = concurrencia;
+            }
+        }
+        return new Medicion(techo, mejorThroughput, escalones);
+    }
+
+    private Resultado ejecutarEscalon(HttpRequest peticion, int concurrencia) throws InterruptedException {
+        List<Long> latencias = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger errores = new AtomicInteger();
+        long fin = System.nanoTime() + DURACION_ESCALON.toNanos();
+
+        try (ExecutorService usuarios = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrencia; i++) {
+                usuarios.submit(() -> {
+                    while (System.nanoTime() < fin) {
+                        long inicio = System.nanoTime();
+                        try {
+                            HttpResponse<Void> respuesta = cliente.send(peticion, HttpResponse.BodyHandlers.discarding());
+                            if (respuesta.statusCode() >= 400) {
+                                errores.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errores.incrementAndGet();
+                        }
+                        latencias.add(System.nanoTime() - inicio);
+                    }
+                });
+            }
+        }
+
+        List<Long> ordenadas = new ArrayList<>(latencias);
+        Collections.sort(ordenadas);
+        long p99 = ordenadas.isEmpty() ? 0 : ordenadas.get((int) Math.floor(ordenadas.size() * 0.99)) / 1_000_000;
+        double throughput = ordenadas.size() / (double) DURACION_ESCALON.toSeconds();
+        return new Resultado(ordenadas.size(), throughput, p99, errores.get());
+    }
+
+    private static String formatear(double valor) {
+        return String.format("%.1f", valor);
+    }
+
+    private record Resultado(int peticiones, double throughput, long p99Ms, int errores) {
+    }
+
+    private record Medicion(int techo, double mejorThroughput, List<Resultado> escalones) {
+    }
+}
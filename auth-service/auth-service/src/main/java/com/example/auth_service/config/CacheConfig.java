@@ -0,0 +1,25 @@
+package com.example.auth_service.config;
+
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caché en memoria (Caffeine) de los usuarios autenticados por JWT.
+ * Tamaño y TTL se configuran en spring.cache.caffeine.spec.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USUARIOS = "usuarios";
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> cacheManagerTransaccional() {
+        // Las invalidaciones dentro de una transacción se aplican tras el commit,
+        // así una lectura concurrente no vuelve a cachear datos sin confirmar
+        return cacheManager -> cacheManager.setTransactionAware(true);
+    }
+}
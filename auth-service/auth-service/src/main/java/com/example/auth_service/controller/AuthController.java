@@ -3,20 +3,32 @@ package com.example.auth_service.controller;
 import com.example.auth_service.dto.AuthResponse;
 
 import com.example.auth_service.dto.LoginRequest;
+import com.example.auth_service.dto.RefreshRequest;
 import com.example.auth_service.dto.RegisterRequest;
+import com.example.auth_service.dto.RevocationsResponse;
 import com.example.auth_service.errores.ErrorResponse;
 import com.example.auth_service.exception.InvalidCredentialsException;
 import com.example.auth_service.exception.InvalidTokenException;
+import com.example.auth_service.exception.ServiceBusyException;
 import com.example.auth_service.exception.UserNotFoundException;
-import com.example.auth_service.model.User;
 import com.example.auth_service.repository.UserRepository;
 import com.example.auth_service.security.JwtService;
+import com.example.auth_service.security.TokenRevocationService;
 import com.example.auth_service.service.AuthService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -145,11 +157,31 @@ public class AuthController {
 
     /**
      * Repositorio para buscar usuarios en base de datos
-     * (Usado específicamente en el endpoint de validación)
+     * (Solo en la validación con ?completa=true)
      */
     @Autowired
     private UserRepository userRepository;
 
+    /**
+     * Revocaciones de access tokens (para /auth/revocations)
+     */
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    /**
+     * Token compartido con Todo Service y Analytics Service para /auth/revocations
+     */
+    @Value("${auth.jwt.revocaciones.token}")
+    private String tokenRevocaciones;
+
+    // Un token vacío aceptaría peticiones sin cabecera comparándolo con ""
+    @PostConstruct
+    void comprobarTokenRevocaciones() {
+        if (tokenRevocaciones == null || tokenRevocaciones.isBlank()) {
+            throw new IllegalStateException("auth.jwt.revocaciones.token (AUTH_REVOCACIONES_TOKEN) no está configurado");
+        }
+    }
+
     // ==================== ENDPOINT: REGISTRO DE USUARIOS ====================
 
     /**
@@ -228,6 +260,17 @@ public class AuthController {
             // RESPUESTA EXITOSA: 200 OK + token JWT
             return ResponseEntity.ok(response);
 
+        } catch (ServiceBusyException e) {
+            // POOL DE HASHING SATURADO: 503 inmediato, el cliente puede reintentar
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new ErrorResponse(
+                            HttpStatus.SERVICE_UNAVAILABLE.value(),
+                            "Service Unavailable",
+                            e.getMessage(),
+                            "/auth/login"
+                    ));
+
         } catch (Exception e) {
             // MANEJO DE ERRORES CON LOGS DETALLADOS
             System.err.println("Error durante el login: " + e.getMessage());
@@ -246,11 +289,95 @@ public class AuthController {
         }
     }
 
+    // ==================== ENDPOINT: REFRESH TOKEN ====================
+
+    /**
+     * ENDPOINT: POST /auth/refresh
+     * ===========================
+     *
+     * Canjea el refresh token por un access token nuevo (vida corta) y otro refresh token.
+     * Cada refresh token vale una sola vez; si se presenta uno ya usado se cierra la sesión.
+     *
+     * RESPUESTAS:
+     * - 200 OK: Nuevo token + nuevo refresh token
+     * - 401 UNAUTHORIZED: Refresh token inválido, expirado o reutilizado
+     */
+    @PostMapping("/refresh") // POST /auth/refresh
+    public ResponseEntity<?> refresh(@RequestBody RefreshRequest request) {
+        try {
+            return ResponseEntity.ok(authService.refresh(request));
+        } catch (InvalidTokenException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ErrorResponse(
+                    HttpStatus.UNAUTHORIZED.value(),
+                    "Unauthorized",
+                    e.getMessage(),
+                    "/auth/refresh"
+            ));
+        }
+    }
+
+    // ==================== ENDPOINT: LOGOUT ====================
+
+    /**
+     * ENDPOINT: POST /auth/logout
+     * ==========================
+     *
+     * Invalida el refresh token (y su sesión) y revoca el access token del header
+     * Authorization. Los demás servicios reciben la revocación en unos segundos.
+     *
+     * RESPUESTAS:
+     * - 204 NO CONTENT: Siempre (cerrar una sesión ya cerrada no es un error)
+     */
+    @PostMapping("/logout") // POST /auth/logout
+    public ResponseEntity<Void> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authHeader,
+            @RequestBody(required = false) RefreshRequest request) {
+        String accessToken = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+        authService.logout(request, accessToken);
+        return ResponseEntity.noContent().build();
+    }
+
+    // ==================== ENDPOINT: REVOCACIONES ====================
+
+    /**
+     * ENDPOINT: GET /auth/revocations?desde=2025-01-01T00:00:00Z
+     * =========================================================
+     *
+     * Lo consultan periódicamente Todo Service y Analytics Service para comprobar la
+     * revocación en memoria. Sin "desde" devuelve todas las revocaciones vigentes;
+     * con "desde", solo las registradas a partir de ese instante (deltas).
+     * Solo contiene jti, expiraciones y huellas SHA-256 de usuario: ningún token ni username.
+     *
+     * Llamada interna entre servicios: exige la cabecera X-Internal-Token.
+     *
+     * RESPUESTAS:
+     * - 200 OK: Revocaciones vigentes
+     * - 401 UNAUTHORIZED: Falta X-Internal-Token o no coincide
+     */
+    @GetMapping("/revocations") // GET /auth/revocations?desde=xxxxx
+    public ResponseEntity<?> revocations(
+            @RequestHeader(value = "X-Internal-Token", required = false) String token,
+            @RequestParam(required = false) Instant desde) {
+        if (token == null || !MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8), tokenRevocaciones.getBytes(StandardCharsets.UTF_8))) {
+            ErrorResponse errorResponse = new ErrorResponse(
+                    HttpStatus.UNAUTHORIZED.value(),
+                    "Unauthorized",
+                    "Token interno inválido",
+                    "/auth/revocations"
+            );
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(tokenRevocationService.revocacionesDesde(desde));
+    }
+
     // ==================== ENDPOINT: VALIDACIÓN DE TOKENS ====================
 
     /**
-     * ENDPOINT: GET /auth/validate?token=xxxxx
-     * ======================================
+     * ENDPOINT: GET /auth/validate
+     * ============================
      *
      * Valida si un token JWT es válido y no ha expirado.
      *
@@ -259,56 +386,62 @@ public class AuthController {
      * - Frontend verifica si el usuario sigue logueado
      * - API Gateway valida permisos antes de rutear requests
      *
-     * FLUJO DETALLADO:
-     * 1. Verificar que el token no esté vacío
-     * 2. Extraer username del token
-     * 3. Buscar usuario en base de datos
-     * 4. Verificar que el token no haya expirado
-     * 5. Devolver información del usuario si todo es válido
+     * EL TOKEN:
+     * - Header "Authorization: Bearer xxxxx" (recomendado: no queda en logs de acceso
+     *   y un gateway puede cachear la respuesta por el hash del token)
+     * - ?token=xxxxx se sigue aceptando por compatibilidad
+     *
+     * FLUJO (por defecto, sin estado):
+     * 1. Un solo parseo: firma + expiración
+     * 2. Revocación en memoria (TokenRevocationService)
+     * 3. Se confía en los claims firmados: solo CPU, sin consultar la base de datos
+     *
+     * Con ?completa=true además se busca el usuario en la base de datos (flujo anterior).
      *
      * RESPUESTAS:
      * - 200 OK: Token válido + info del usuario
-     * - 401 UNAUTHORIZED: Token inválido/expirado/usuario no existe
+     * - 401 UNAUTHORIZED: Token inválido/expirado/revocado/usuario no existe
      * - 500 INTERNAL_SERVER_ERROR: Error inesperado del servidor
      */
-    @GetMapping("/validate") // GET /auth/validate?token=xxxxx
-    public ResponseEntity<?> validateToken(@RequestParam String token) {
+    @GetMapping("/validate") // GET /auth/validate (Authorization: Bearer xxxxx)
+    public ResponseEntity<?> validateToken(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authHeader,
+            @RequestParam(required = false) String token,
+            @RequestParam(defaultValue = "false") boolean completa) {
         try {
-            // PASO 1: VALIDACIÓN BÁSICA DEL TOKEN
+            // PASO 1: OBTENER EL TOKEN (header primero, query param por compatibilidad)
+            if (authHeader != null && authHeader.startsWith("Bearer ")) {
+                token = authHeader.substring(7);
+            }
             if (token == null || token.isEmpty()) {
                 throw new InvalidTokenException("El token no puede estar vacío");
             }
 
-            // PASO 2: EXTRAER USERNAME DEL TOKEN JWT
-            // El token contiene información codificada (payload con username, exp, etc.)
-            String username = jwtService.extractUsername(token);
+            // PASO 2: UN SOLO PARSEO + REVOCACIÓN EN MEMORIA
+            // Verifica: firma válida + no expirado + no revocado
+            Claims claims = jwtService.validarSinEstado(token);
+            String username = claims.getSubject();
             if (username == null) {
                 throw new InvalidTokenException("Token inválido o mal formado");
             }
 
-            // PASO 3: VERIFICAR QUE EL USUARIO EXISTA EN LA BASE DE DATOS
-            // Importante: el token podría ser válido pero el usuario podría haber sido eliminado
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new UserNotFoundException("Usuario no encontrado: " + username));
-
-            // PASO 4: VALIDACIÓN COMPLETA DEL TOKEN
-            // Verifica: firma válida + no expirado + usuario correcto
-            boolean isValid = jwtService.isTokenValid(token, user);
-            if (!isValid) {
-                throw new InvalidTokenException("Token expirado o inválido");
+            // PASO 3 (solo con ?completa=true): VERIFICAR QUE EL USUARIO EXISTA EN LA BASE DE DATOS
+            // Sin él, un usuario borrado se detecta por la revocación de sus tokens
+            if (completa && !userRepository.existsByUsername(username)) {
+                throw new UserNotFoundException("Usuario no encontrado: " + username);
             }
 
-            // PASO 5: CREAR RESPUESTA EXITOSA
+            // PASO 4: CREAR RESPUESTA EXITOSA
             // Devolvemos información útil para el cliente
             Map<String, Object> response = new HashMap<>();
             response.put("valid", true);           // Confirmación de validez
             response.put("username", username);    // Username del token
-            // Podrías agregar: roles, expiración, etc.
+            response.put("expiresAt", claims.getExpiration().toInstant().toString());
 
             return ResponseEntity.ok(response);
 
-        } catch (InvalidTokenException | UserNotFoundException e) {
-            // ERRORES ESPERADOS: Token malo o usuario no existe
+        } catch (InvalidTokenException | UserNotFoundException | JwtException e) {
+            // ERRORES ESPERADOS: Token malo, expirado, revocado o usuario no existe
             ErrorResponse errorResponse = new ErrorResponse(
                     HttpStatus.UNAUTHORIZED.value(),  // 401
                     "Unauthorized",
@@ -318,7 +451,7 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
 
         } catch (Exception e) {
-            // ERRORES INESPERADOS: Problemas de BD, parsing, etc.
+            // ERRORES INESPERADOS: Problemas de BD, etc.
             ErrorResponse errorResponse = new ErrorResponse(
                     HttpStatus.INTERNAL_SERVER_ERROR.value(),  // 500
                     "Internal Server Error",
@@ -370,7 +503,7 @@ A: "Con @Valid y Bean Validation (@NotBlank, @Size, etc.) en RegisterRequest/Log
 
 Q: "¿Por qué el endpoint de validación usa GET en lugar de POST?"
 A: "GET es idempotente y apropiado para operaciones de consulta.
-   El token va como query param, no modifica estado del servidor."
+   El token va en el header Authorization, no modifica estado del servidor."
 
 Q: "¿Cómo mejorarías el logging en este código?"
 A: "Usaría SLF4J + Logback, levels apropiados (INFO, ERROR),
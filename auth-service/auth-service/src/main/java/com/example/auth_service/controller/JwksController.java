@@ -0,0 +1,33 @@
+package com.example.auth_service.controller;
+
+import com.example.auth_service.security.JwtKeyService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * ENDPOINT: GET /.well-known/jwks.json
+ * ====================================
+ *
+ * Claves públicas con las que Todo Service, Analytics Service y el Gateway verifican
+ * los JWT en local, sin llamar a /auth/validate en cada petición.
+ * Incluye las claves pre-publicadas que aún no firman (ver JwtKeyService).
+ */
+@RestController
+public class JwksController {
+
+    @Autowired
+    private JwtKeyService jwtKeyService;
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(jwtKeyService.jwks());
+    }
+}
@@ -2,6 +2,7 @@ package com.example.auth_service.dto;
 
 public class AuthResponse {
     private String token;
+    private String refreshToken;
     private String username;
     private String message;
 
@@ -31,6 +32,14 @@ public class AuthResponse {
         this.token = token;
     }
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
     public String getUsername() {
         return username;
     }
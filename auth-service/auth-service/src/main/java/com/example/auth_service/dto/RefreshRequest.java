@@ -0,0 +1,22 @@
+package com.example.auth_service.dto;
+
+public class RefreshRequest {
+    private String refreshToken;
+
+    // Constructor vacío
+    public RefreshRequest() {
+    }
+
+    public RefreshRequest(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    // Getters y Setters
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.auth_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Respuesta de GET /auth/revocations (solo para los servicios internos, con X-Internal-Token).
+ *
+ * until: hora del servidor al consultar; el cliente pide la siguiente vez desde ahí
+ * (con un pequeño solape, las entradas repetidas no importan).
+ */
+public record RevocationsResponse(Instant until, List<Revocation> revocations) {
+
+    /**
+     * jti != null: un token concreto; solo se envían jti y expiresAt.
+     * jti == null: los tokens del usuario emitidos antes de revokedAt. El usuario no se envía:
+     * "sujeto" es el SHA-256 (hex) de su username, el servicio de recursos lo compara con el
+     * del subject del token (TokenRevocationService.huellaUsuario).
+     * expiresAt: a partir de ahí la entrada ya no afecta a ningún token y se puede olvidar.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Revocation(String jti, String sujeto, Instant revokedAt, Instant expiresAt) {
+
+        public static Revocation deToken(String jti, Instant expiresAt) {
+            return new Revocation(jti, null, null, expiresAt);
+        }
+
+        public static Revocation deUsuario(String sujeto, Instant revokedAt, Instant expiresAt) {
+            return new Revocation(null, sujeto, revokedAt, expiresAt);
+        }
+    }
+}
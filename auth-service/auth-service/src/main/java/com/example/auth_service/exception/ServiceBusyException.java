@@ -0,0 +1,11 @@
+package com.example.auth_service.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.auth_service.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Refresh token de un solo uso.
+ *
+ * Solo se guarda el SHA-256 del token, nunca el token. Cada uso lo marca como usado
+ * (usedAt) y emite otro de la misma familia; si llega uno ya usado, alguien lo ha
+ * copiado y se invalida toda la familia (la sesión completa).
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_family", columnList = "family"),
+        @Index(name = "idx_refresh_tokens_expires_at", columnList = "expiresAt")
+})
+public class RefreshToken {
+
+    // SHA-256 del token en hexadecimal
+    @Id
+    @Column(length = 64)
+    private String tokenHash;
+
+    @Column(nullable = false)
+    private String username;
+
+    // Sesión a la que pertenece: el login crea la familia y cada rotación la hereda
+    @Column(nullable = false, length = 36)
+    private String family;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    private Instant usedAt;
+
+    // Constructores
+    public RefreshToken() {
+    }
+
+    public RefreshToken(String tokenHash, String username, String family, Instant createdAt, Instant expiresAt) {
+        this.tokenHash = tokenHash;
+        this.username = username;
+        this.family = family;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters y setters
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getFamily() {
+        return family;
+    }
+
+    public void setFamily(String family) {
+        this.family = family;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public Instant getUsedAt() {
+        return usedAt;
+    }
+
+    public void setUsedAt(Instant usedAt) {
+        this.usedAt = usedAt;
+    }
+}
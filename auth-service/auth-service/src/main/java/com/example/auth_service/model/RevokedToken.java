@@ -0,0 +1,89 @@
+package com.example.auth_service.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Revocación de access tokens, compartida por todas las instancias de auth-service.
+ *
+ * - jti: revoca un token concreto (logout).
+ * - username sin jti: revoca todos los tokens del usuario emitidos antes de revokedAt.
+ *
+ * Los servicios de recursos la reciben por /auth/revocations (instantánea y luego deltas
+ * por revokedAt). La fila sobra en cuanto expiresAt pasa: ya no queda ningún token afectado.
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revokedAt"),
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expiresAt")
+})
+public class RevokedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 36)
+    private String jti;
+
+    private String username;
+
+    @Column(nullable = false)
+    private Instant revokedAt;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    // Constructores
+    public RevokedToken() {
+    }
+
+    public RevokedToken(String jti, String username, Instant revokedAt, Instant expiresAt) {
+        this.jti = jti;
+        this.username = username;
+        this.revokedAt = revokedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters y setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getJti() {
+        return jti;
+    }
+
+    public void setJti(String jti) {
+        this.jti = jti;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public Instant getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(Instant revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -1,10 +1,12 @@
 package com.example.auth_service.model;
 
+import com.example.auth_service.security.UserCacheInvalidationListener;
 import jakarta.persistence.*;
 import org.springframework.security.core.GrantedAuthority;
 
 @Entity
 @Table(name = "roles")
+@EntityListeners(UserCacheInvalidationListener.class)
 public class Role implements GrantedAuthority {
 
     @Id
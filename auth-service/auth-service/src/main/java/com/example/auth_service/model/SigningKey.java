@@ -0,0 +1,91 @@
+package com.example.auth_service.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Par de claves RSA con el que auth-service firma los JWT (RS256).
+ *
+ * Se guardan en la base de datos para que todas las instancias firmen y publiquen en
+ * /.well-known/jwks.json el mismo conjunto de claves. Una clave nueva se publica antes
+ * de empezar a firmar con ella (activeFrom) para que los servicios la conozcan a tiempo.
+ * La clave privada se guarda cifrada; la clave de cifrado no está en la base de datos.
+ */
+@Entity
+@Table(name = "signing_keys")
+public class SigningKey {
+
+    @Id
+    @Column(length = 36)
+    private String kid;
+
+    // PKCS#8 cifrado con AES-256-GCM ("v1:..."), ver CifradoClavesFirma
+    @Lob
+    @Column(nullable = false)
+    private String privateKey;
+
+    // X.509 (SubjectPublicKeyInfo) en Base64
+    @Lob
+    @Column(nullable = false)
+    private String publicKey;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant activeFrom;
+
+    // Constructores
+    public SigningKey() {
+    }
+
+    public SigningKey(String kid, String privateKey, String publicKey, Instant createdAt, Instant activeFrom) {
+        this.kid = kid;
+        this.privateKey = privateKey;
+        this.publicKey = publicKey;
+        this.createdAt = createdAt;
+        this.activeFrom = activeFrom;
+    }
+
+    // Getters y setters
+    public String getKid() {
+        return kid;
+    }
+
+    public void setKid(String kid) {
+        this.kid = kid;
+    }
+
+    public String getPrivateKey() {
+        return privateKey;
+    }
+
+    public void setPrivateKey(String privateKey) {
+        this.privateKey = privateKey;
+    }
+
+    public String getPublicKey() {
+        return publicKey;
+    }
+
+    public void setPublicKey(String publicKey) {
+        this.publicKey = publicKey;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getActiveFrom() {
+        return activeFrom;
+    }
+
+    public void setActiveFrom(Instant activeFrom) {
+        this.activeFrom = activeFrom;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.auth_service.model;
 
+import com.example.auth_service.security.UserCacheInvalidationListener;
 import jakarta.persistence.*;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -8,6 +9,7 @@ import java.util.*;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserCacheInvalidationListener.class)
 public class User implements UserDetails {
 
     @Id
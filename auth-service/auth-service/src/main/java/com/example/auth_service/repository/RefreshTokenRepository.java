@@ -0,0 +1,25 @@
+package com.example.auth_service.repository;
+
+import com.example.auth_service.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+
+    // Marca el token como usado solo si nadie lo ha usado antes: 0 filas = reutilización
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.usedAt = :usedAt WHERE r.tokenHash = :tokenHash AND r.usedAt IS NULL")
+    int markUsed(@Param("tokenHash") String tokenHash, @Param("usedAt") Instant usedAt);
+
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.usedAt = :usedAt WHERE r.family = :family AND r.usedAt IS NULL")
+    int markFamilyUsed(@Param("family") String family, @Param("usedAt") Instant usedAt);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.expiresAt < :expiresAt")
+    int deleteByExpiresAtBefore(@Param("expiresAt") Instant expiresAt);
+}
@@ -0,0 +1,20 @@
+package com.example.auth_service.repository;
+
+import com.example.auth_service.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+    List<RevokedToken> findByExpiresAtAfter(Instant expiresAt);
+
+    List<RevokedToken> findByRevokedAtGreaterThanEqualAndExpiresAtAfter(Instant revokedAt, Instant expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt < :expiresAt")
+    int deleteByExpiresAtBefore(@Param("expiresAt") Instant expiresAt);
+}
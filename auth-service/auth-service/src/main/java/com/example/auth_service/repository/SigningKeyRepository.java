@@ -0,0 +1,18 @@
+package com.example.auth_service.repository;
+
+import com.example.auth_service.model.SigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface SigningKeyRepository extends JpaRepository<SigningKey, String> {
+    List<SigningKey> findByCreatedAtAfter(Instant createdAt);
+
+    @Modifying
+    @Query("DELETE FROM SigningKey k WHERE k.createdAt < :createdAt")
+    int deleteByCreatedAtBefore(@Param("createdAt") Instant createdAt);
+}
@@ -0,0 +1,49 @@
+package com.example.auth_service.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Elige al arrancar el coste de BCrypt que más se acerca, sin pasarse, a un tiempo objetivo
+ * por hash en esta máquina.
+ *
+ * Cada punto de coste duplica el tiempo, así que se mide desde el coste mínimo y se sube
+ * mientras el siguiente siga por debajo del objetivo. Los hashes guardados con un coste
+ * menor se rehacen en el siguiente login (ver SecurityConfig.userDetailsPasswordService).
+ */
+public final class BCryptCostCalibrator {
+
+    private static final Logger log = LoggerFactory.getLogger(BCryptCostCalibrator.class);
+
+    private static final String MUESTRA = "calibracion-bcrypt";
+
+    private BCryptCostCalibrator() {
+    }
+
+    public static int calibrar(Duration objetivo, int costeMinimo, int costeMaximo) {
+        // Calentamiento: la primera medición incluye carga de clases y JIT
+        new BCryptPasswordEncoder(costeMinimo).encode(MUESTRA);
+
+        int coste = costeMinimo;
+        long nanos = medir(coste);
+        // El coste siguiente tarda aproximadamente el doble
+        while (coste < costeMaximo && nanos * 2 <= objetivo.toNanos()) {
+            coste++;
+            nanos = medir(coste);
+        }
+
+        log.info("Coste BCrypt calibrado: {} ({} ms por hash, objetivo {} ms)",
+                coste, Duration.ofNanos(nanos).toMillis(), objetivo.toMillis());
+        return coste;
+    }
+
+    private static long medir(int coste) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(coste);
+        long inicio = System.nanoTime();
+        encoder.encode(MUESTRA);
+        return System.nanoTime() - inicio;
+    }
+}
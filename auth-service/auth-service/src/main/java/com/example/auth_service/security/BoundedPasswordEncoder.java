@@ -0,0 +1,36 @@
+package com.example.auth_service.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * PasswordEncoder que ejecuta encode() y matches() en el PasswordHashingExecutor.
+ *
+ * Todo el hashing de la aplicación (registro, login, protección contra timing attacks de
+ * DaoAuthenticationProvider y rehash al hacer login) pasa por el mismo pool acotado.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.ejecutar(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executor.ejecutar(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Solo lee el coste del hash, no necesita el pool
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.auth_service.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Cifrado en reposo de las claves privadas de signing_keys (AES-256-GCM).
+ *
+ * La clave de cifrado llega por auth.jwt.clave-cifrado (AUTH_JWT_CLAVE_CIFRADO, 32 bytes en
+ * Base64) y nunca se guarda en la base de datos: con solo la tabla, o una copia de seguridad,
+ * no se pueden firmar tokens. El kid va como dato autenticado, así una clave privada copiada
+ * a otra fila no se descifra.
+ *
+ * Formato guardado: "v1:" + Base64(IV de 12 bytes || texto cifrado con la etiqueta GCM).
+ * Las filas anteriores (PKCS#8 en Base64, sin prefijo) se siguen leyendo y JwtKeyService
+ * las vuelve a guardar cifradas.
+ */
+@Component
+public class CifradoClavesFirma {
+
+    private static final String PREFIJO = "v1:";
+    private static final int BYTES_IV = 12;
+    private static final int BITS_ETIQUETA = 128;
+
+    private final SecretKey clave;
+    private final SecureRandom aleatorio = new SecureRandom();
+
+    public CifradoClavesFirma(@Value("${auth.jwt.clave-cifrado}") String claveBase64) {
+        if (claveBase64 == null || claveBase64.isBlank()) {
+            throw new IllegalStateException("auth.jwt.clave-cifrado (AUTH_JWT_CLAVE_CIFRADO) no está configurada");
+        }
+        byte[] bytes = Base64.getDecoder().decode(claveBase64.trim());
+        if (bytes.length != 32) {
+            throw new IllegalStateException("auth.jwt.clave-cifrado debe tener 32 bytes (AES-256) en Base64");
+        }
+        this.clave = new SecretKeySpec(bytes, "AES");
+    }
+
+    public String cifrar(String kid, byte[] clavePrivada) {
+        try {
+            byte[] iv = new byte[BYTES_IV];
+            aleatorio.nextBytes(iv);
+            Cipher aes = Cipher.getInstance("AES/GCM/NoPadding");
+            aes.init(Cipher.ENCRYPT_MODE, clave, new GCMParameterSpec(BITS_ETIQUETA, iv));
+            aes.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            byte[] cifrado = aes.doFinal(clavePrivada);
+
+            return PREFIJO + Base64.getEncoder().encodeToString(
+                    ByteBuffer.allocate(iv.length + cifrado.length).put(iv).put(cifrado).array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo cifrar la clave de firma " + kid, e);
+        }
+    }
+
+    /**
+     * PKCS#8 de la clave privada. Falla si la clave de cifrado no es la que cifró la fila.
+     */
+    public byte[] descifrar(String kid, String guardada) {
+        if (!estaCifrada(guardada)) {
+            return Base64.getDecoder().decode(guardada);
+        }
+        try {
+            byte[] datos = Base64.getDecoder().decode(guardada.substring(PREFIJO.length()));
+            Cipher aes = Cipher.getInstance("AES/GCM/NoPadding");
+            aes.init(Cipher.DECRYPT_MODE, clave, new GCMParameterSpec(BITS_ETIQUETA, datos, 0, BYTES_IV));
+            aes.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            return aes.doFinal(datos, BYTES_IV, datos.length - BYTES_IV);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo descifrar la clave de firma " + kid, e);
+        }
+    }
+
+    public boolean estaCifrada(String guardada) {
+        return guardada.startsWith(PREFIJO);
+    }
+}
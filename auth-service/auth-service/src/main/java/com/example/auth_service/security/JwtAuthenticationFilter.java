@@ -1,7 +1,8 @@
 package com.example.auth_service.security;
 
 import com.example.auth_service.model.User;
-import com.example.auth_service.repository.UserRepository;
+import com.example.auth_service.service.UserCacheService;
+import io.jsonwebtoken.Claims;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -20,12 +21,12 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserRepository userRepository;
+    private final UserCacheService userCacheService;
 
     // Constructor explícito
-    public JwtAuthenticationFilter(JwtService jwtService, UserRepository userRepository) {
+    public JwtAuthenticationFilter(JwtService jwtService, UserCacheService userCacheService) {
         this.jwtService = jwtService;
-        this.userRepository = userRepository;
+        this.userCacheService = userCacheService;
     }
 
     @Override
@@ -42,22 +43,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         final String jwt = authHeader.substring(7);
-        String username = null;
+        final Claims claims;
 
         try {
-            username = jwtService.extractUsername(jwt);
+            // Firma y expiración se verifican una sola vez; los claims se reutilizan abajo
+            claims = jwtService.extractAllClaims(jwt);
         } catch (Exception e) {
             // Token inválido, continuar con la cadena de filtros
             filterChain.doFilter(request, response);
             return;
         }
 
+        final String username = claims.getSubject();
+
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userRepository.findByUsername(username).orElse(null);
+            // Usuario y roles desde la caché: sin consulta a MySQL en cada petición autenticada
+            UserDetails userDetails = userCacheService.findByUsername(username);
 
             if (userDetails != null) {
                 try {
-                    if (jwtService.isTokenValid(jwt, (User) userDetails)) {
+                    if (jwtService.isTokenValid(claims, (User) userDetails)) {
                         UsernamePasswordAuthenticationToken authToken =
                                 new UsernamePasswordAuthenticationToken(
                                         userDetails, null, userDetails.getAuthorities()
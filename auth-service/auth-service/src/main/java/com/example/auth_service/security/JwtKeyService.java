@@ -0,0 +1,195 @@
+package com.example.auth_service.security;
+
+import com.example.auth_service.model.SigningKey;
+import com.example.auth_service.repository.SigningKeyRepository;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Claves RSA de firma de los JWT y su rotación.
+ *
+ * - Las claves viven en la tabla signing_keys, compartida por todas las instancias, con la
+ *   clave privada cifrada (CifradoClavesFirma) con una clave que no está en la base de datos.
+ * - Cada auth.jwt.rotacion se crea una clave nueva; se publica en el JWKS enseguida pero
+ *   solo se firma con ella pasado auth.jwt.pre-publicacion, cuando los servicios que
+ *   verifican ya han tenido tiempo de descargarla.
+ * - Una clave sigue publicada mientras pueda haber tokens firmados con ella
+ *   (rotación + vida del token + pre-publicación); después se borra.
+ * - Cada instancia recarga las claves cada auth.jwt.recarga-ms y las mantiene en memoria.
+ */
+@Service
+public class JwtKeyService {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyService.class);
+
+    private final SigningKeyRepository signingKeyRepository;
+    private final CifradoClavesFirma cifrado;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration rotacion;
+    private final Duration prePublicacion;
+    private final Duration retencion;
+
+    private volatile AnilloClaves anillo = new AnilloClaves(List.of(), Map.of(), Map.of());
+
+    public JwtKeyService(SigningKeyRepository signingKeyRepository,
+                         CifradoClavesFirma cifrado,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${auth.jwt.rotacion:7d}") Duration rotacion,
+                         @Value("${auth.jwt.pre-publicacion:10m}") Duration prePublicacion,
+                         @Value("${auth.jwt.duracion-token:15m}") Duration duracionToken) {
+        this.signingKeyRepository = signingKeyRepository;
+        this.cifrado = cifrado;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rotacion = rotacion;
+        this.prePublicacion = prePublicacion;
+        this.retencion = rotacion.plus(duracionToken).plus(prePublicacion);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        recargar();
+    }
+
+    /**
+     * Crea la clave siguiente si toca rotar, borra las caducadas y recarga el anillo en memoria.
+     */
+    @Scheduled(fixedDelayString = "${auth.jwt.recarga-ms:300000}", initialDelayString = "${auth.jwt.recarga-ms:300000}")
+    public synchronized void recargar() {
+        // TransactionTemplate y no @Transactional: también se llama desde @PostConstruct
+        anillo = construirAnillo(transactionTemplate.execute(estado -> rotarClaves(Instant.now())));
+    }
+
+    private List<SigningKey> rotarClaves(Instant ahora) {
+        signingKeyRepository.deleteByCreatedAtBefore(ahora.minus(retencion));
+        List<SigningKey> claves = new ArrayList<>(signingKeyRepository.findByCreatedAtAfter(ahora.minus(retencion)));
+        cifrarClavesAnteriores(claves);
+
+        boolean hayActiva = claves.stream().anyMatch(clave -> !clave.getActiveFrom().isAfter(ahora));
+        Instant ultimaCreada = claves.stream().map(SigningKey::getCreatedAt).max(Comparator.naturalOrder()).orElse(null);
+
+        if (!hayActiva) {
+            // Primer arranque (o todas caducadas): no hay con qué firmar, se usa ya
+            claves.add(signingKeyRepository.save(nuevaClave(ahora, ahora)));
+        } else if (ultimaCreada.isBefore(ahora.minus(rotacion))) {
+            claves.add(signingKeyRepository.save(nuevaClave(ahora, ahora.plus(prePublicacion))));
+        }
+        return claves;
+    }
+
+    // Filas guardadas antes del cifrado en reposo: se reescriben cifradas (la entidad está gestionada)
+    private void cifrarClavesAnteriores(List<SigningKey> claves) {
+        for (SigningKey clave : claves) {
+            if (!cifrado.estaCifrada(clave.getPrivateKey())) {
+                clave.setPrivateKey(cifrado.cifrar(clave.getKid(), Base64.getDecoder().decode(clave.getPrivateKey())));
+                log.info("Clave de firma JWT {} cifrada en reposo", clave.getKid());
+            }
+        }
+    }
+
+    /**
+     * Clave con la que firmar ahora: la más reciente que ya está activa.
+     */
+    public ClaveFirma claveFirma() {
+        Instant ahora = Instant.now();
+        return anillo.firmas().stream()
+                .filter(clave -> !clave.activaDesde().isAfter(ahora))
+                .max(Comparator.comparing(ClaveFirma::activaDesde))
+                .orElseThrow(() -> new IllegalStateException("No hay ninguna clave de firma activa"));
+    }
+
+    public RSAPublicKey clavePublica(String kid) {
+        RSAPublicKey clave = kid != null ? anillo.publicas().get(kid) : null;
+        if (clave == null) {
+            throw new JwtException("Clave de firma desconocida: " + kid);
+        }
+        return clave;
+    }
+
+    /**
+     * JWK Set publicado en /.well-known/jwks.json (calculado al recargar, no en cada petición).
+     */
+    public Map<String, Object> jwks() {
+        return anillo.jwks();
+    }
+
+    private AnilloClaves construirAnillo(List<SigningKey> claves) {
+        try {
+            KeyFactory rsa = KeyFactory.getInstance("RSA");
+            List<ClaveFirma> firmas = new ArrayList<>();
+            Map<String, RSAPublicKey> publicas = new LinkedHashMap<>();
+            List<JWK> jwks = new ArrayList<>();
+
+            for (SigningKey clave : claves) {
+                PrivateKey privada = rsa.generatePrivate(
+                        new PKCS8EncodedKeySpec(cifrado.descifrar(clave.getKid(), clave.getPrivateKey())));
+                RSAPublicKey publica = (RSAPublicKey) rsa.generatePublic(
+                        new X509EncodedKeySpec(Base64.getDecoder().decode(clave.getPublicKey())));
+
+                firmas.add(new ClaveFirma(clave.getKid(), privada, clave.getActiveFrom()));
+                publicas.put(clave.getKid(), publica);
+                jwks.add(new RSAKey.Builder(publica)
+                        .keyID(clave.getKid())
+                        .keyUse(KeyUse.SIGNATURE)
+                        .algorithm(JWSAlgorithm.RS256)
+                        .build());
+            }
+
+            return new AnilloClaves(List.copyOf(firmas), Map.copyOf(publicas), new JWKSet(jwks).toJSONObject());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudieron cargar las claves de firma", e);
+        }
+    }
+
+    private SigningKey nuevaClave(Instant ahora, Instant activaDesde) {
+        try {
+            KeyPairGenerator generador = KeyPairGenerator.getInstance("RSA");
+            generador.initialize(2048);
+            KeyPair par = generador.generateKeyPair();
+
+            String kid = UUID.randomUUID().toString();
+            log.info("Nueva clave de firma JWT {} (activa desde {})", kid, activaDesde);
+            return new SigningKey(kid,
+                    cifrado.cifrar(kid, par.getPrivate().getEncoded()),
+                    Base64.getEncoder().encodeToString(par.getPublic().getEncoded()),
+                    ahora, activaDesde);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo generar la clave de firma", e);
+        }
+    }
+
+    public record ClaveFirma(String kid, PrivateKey privada, Instant activaDesde) {
+    }
+
+    private record AnilloClaves(List<ClaveFirma> firmas, Map<String, RSAPublicKey> publicas, Map<String, Object> jwks) {
+    }
+}
@@ -1,56 +1,97 @@
 package com.example.auth_service.security;
 
 
+import com.example.auth_service.exception.InvalidTokenException;
 import com.example.auth_service.model.User;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
+import java.util.UUID;
 import java.util.function.Function;
 
 
 @Service
 public class JwtService {
-    private static final String SECRET_KEY = "mi-clave-super-secreta-mas-larga-que-256-bits-segura";
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    private final JwtKeyService jwtKeyService;
+    private final TokenRevocationService tokenRevocationService;
+    private final Duration duracionToken;
+
+    // Parser construido una sola vez y compartido por todos los hilos (JwtParser es inmutable
+    // y thread-safe). La clave pública se elige por el "kid" de la cabecera del token.
+    private final JwtParser jwtParser;
+
+    public JwtService(JwtKeyService jwtKeyService, TokenRevocationService tokenRevocationService,
+                      @Value("${auth.jwt.duracion-token:15m}") Duration duracionToken) {
+        this.jwtKeyService = jwtKeyService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.duracionToken = duracionToken;
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return jwtKeyService.clavePublica(header.getKeyId());
+                    }
+                })
+                .build();
     }
 
     public String generateToken(User user) {
+        JwtKeyService.ClaveFirma clave = jwtKeyService.claveFirma();
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, clave.kid())
+                .setId(UUID.randomUUID().toString())
                 .setSubject(user.getUsername())
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 86400000)) // 1 día
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                // Access token de vida corta: la sesión se alarga con el refresh token
+                .setExpiration(new Date(System.currentTimeMillis() + duracionToken.toMillis()))
+                .signWith(clave.privada(), SignatureAlgorithm.RS256)
                 .compact();
     }
 
+    /**
+     * Verifica la firma y la expiración y devuelve los claims.
+     * Llamarlo una vez por petición y reutilizar el resultado con los métodos que reciben Claims.
+     */
+    public Claims extractAllClaims(String token) {
+        return jwtParser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Validación sin estado: un solo parseo (firma y expiración) y la comprobación de
+     * revocación en memoria. Se confía en los claims firmados; no consulta la base de datos.
+     */
+    public Claims validarSinEstado(String token) {
+        Claims claims = extractAllClaims(token);
+        if (tokenRevocationService.estaRevocado(claims)) {
+            throw new InvalidTokenException("Token revocado");
+        }
+        return claims;
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
     public boolean isTokenValid(String token, User userDetails) {
-        final String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+        return isTokenValid(extractAllClaims(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean isTokenValid(Claims claims, User userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername())
+                && !isTokenExpired(claims)
+                && !tokenRevocationService.estaRevocado(claims);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
     private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(extractAllClaims(token));
     }
 }
@@ -0,0 +1,90 @@
+package com.example.auth_service.security;
+
+import com.example.auth_service.exception.ServiceBusyException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pool acotado para el hashing de contraseñas (BCrypt), separado de los hilos de Tomcat.
+ *
+ * BCrypt es CPU pura: una ráfaga de logins en los hilos de Tomcat ocupa todos los núcleos
+ * y deja sin CPU a endpoints baratos como /auth/validate. Aquí el hashing usa como máximo
+ * auth.password.hilos hilos (por defecto, núcleos - 1) y una cola de auth.password.cola
+ * tareas. Con la cola llena, o si la espera supera auth.password.espera-maxima, se lanza
+ * ServiceBusyException (503) al momento en lugar de acumular peticiones.
+ */
+@Component
+public class PasswordHashingExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+    private final Duration esperaMaxima;
+
+    public PasswordHashingExecutor(@Value("${auth.password.hilos:0}") int hilos,
+                                   @Value("${auth.password.cola:64}") int cola,
+                                   @Value("${auth.password.espera-maxima:5s}") Duration esperaMaxima) {
+        int tamanio = hilos > 0 ? hilos : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        this.executor = new ThreadPoolExecutor(tamanio, tamanio, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cola), new HilosHashing(), new ThreadPoolExecutor.AbortPolicy());
+        this.esperaMaxima = esperaMaxima;
+    }
+
+    /**
+     * Ejecuta la tarea en el pool y espera su resultado.
+     *
+     * @throws ServiceBusyException si el pool está saturado o la espera supera el máximo
+     */
+    public <T> T ejecutar(Supplier<T> tarea) {
+        Future<T> futuro;
+        try {
+            futuro = executor.submit(tarea::get);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceBusyException("Demasiadas solicitudes de autenticación. Inténtalo de nuevo en unos segundos.");
+        }
+
+        try {
+            return futuro.get(esperaMaxima.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            throw new ServiceBusyException("El servicio de autenticación está saturado. Inténtalo de nuevo en unos segundos.");
+        } catch (InterruptedException e) {
+            futuro.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Solicitud de autenticación interrumpida");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static class HilosHashing implements ThreadFactory {
+
+        private final AtomicInteger contador = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable tarea) {
+            Thread hilo = new Thread(tarea, "password-hashing-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.auth_service.security;
 
+import com.example.auth_service.model.User;
 import com.example.auth_service.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -10,6 +12,7 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -20,6 +23,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 
@@ -47,6 +51,8 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         // Permitir todas las rutas en /auth/**
                         .requestMatchers("/auth/**").permitAll()
+                        // Claves públicas para verificar los JWT (JWKS)
+                        .requestMatchers("/.well-known/**").permitAll()
                         // Permitir solicitudes OPTIONS para CORS
                         .requestMatchers("/**").permitAll() // Solo para depuración, quitar en producción
                         .anyRequest().authenticated()
@@ -71,20 +77,42 @@ public class SecurityConfig {
     }
 
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(userDetailsService());
-        provider.setPasswordEncoder(passwordEncoder());
+        provider.setPasswordEncoder(passwordEncoder);
+        // Tras un login correcto, si el hash tiene un coste menor que el actual se rehace
+        provider.setUserDetailsPasswordService(userDetailsPasswordService());
         return provider;
     }
 
+    @Bean
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (userDetails, nuevoHash) -> {
+            User user = userRepository.findByUsername(userDetails.getUsername())
+                    .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + userDetails.getUsername()));
+            user.setPassword(nuevoHash);
+            return userRepository.save(user);
+        };
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration configuration) throws Exception {
         return configuration.getAuthenticationManager();
     }
 
+    /**
+     * BCrypt con el coste calibrado al arrancar (o fijo si auth.password.bcrypt.coste > 0),
+     * ejecutado en el pool acotado de PasswordHashingExecutor.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            PasswordHashingExecutor passwordHashingExecutor,
+            @Value("${auth.password.bcrypt.coste:0}") int costeFijo,
+            @Value("${auth.password.bcrypt.objetivo:250ms}") Duration objetivo,
+            @Value("${auth.password.bcrypt.coste-minimo:10}") int costeMinimo,
+            @Value("${auth.password.bcrypt.coste-maximo:14}") int costeMaximo) {
+        int coste = costeFijo > 0 ? costeFijo : BCryptCostCalibrator.calibrar(objetivo, costeMinimo, costeMaximo);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(coste), passwordHashingExecutor);
     }
 }
\ No newline at end of file
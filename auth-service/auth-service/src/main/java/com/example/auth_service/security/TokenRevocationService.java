@@ -0,0 +1,153 @@
+package com.example.auth_service.security;
+
+import com.example.auth_service.dto.RevocationsResponse;
+import com.example.auth_service.model.RevokedToken;
+import com.example.auth_service.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revocaciones de JWT en memoria, para validar un token sin ir a la base de datos.
+ *
+ * - Por token: jti revocado hasta que el token caduca (logout).
+ * - Por usuario: todos los tokens emitidos antes de un instante (usuario borrado).
+ *
+ * Cada revocación se guarda también en revoked_tokens: las demás instancias la leen en
+ * sincronizar() y los servicios de recursos la reciben por GET /auth/revocations
+ * (protegido con el token interno, sin usernames).
+ * Las entradas se purgan cuando ya no queda ningún token al que puedan afectar,
+ * así que el tamaño depende de las revocaciones recientes, no del número de usuarios.
+ */
+@Service
+public class TokenRevocationService {
+
+    // jti -> expiración del token revocado
+    private final Map<String, Instant> tokensRevocados = new ConcurrentHashMap<>();
+
+    // username -> los tokens emitidos antes de este instante están revocados
+    private final Map<String, Instant> usuariosRevocados = new ConcurrentHashMap<>();
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final Duration duracionToken;
+    private final Duration solape;
+
+    // Hora de la última sincronización con revoked_tokens (null: aún no se ha cargado nada)
+    private volatile Instant sincronizadoHasta;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  @Value("${auth.jwt.duracion-token:15m}") Duration duracionToken,
+                                  @Value("${auth.jwt.revocaciones.solape:10s}") Duration solape) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.duracionToken = duracionToken;
+        this.solape = solape;
+    }
+
+    @Transactional
+    public void revocarToken(String jti, Instant expiracion) {
+        if (jti == null || !expiracion.isAfter(Instant.now())) {
+            return;
+        }
+        revokedTokenRepository.save(new RevokedToken(jti, null, Instant.now(), expiracion));
+        tokensRevocados.put(jti, expiracion);
+    }
+
+    // REQUIRES_NEW: se llama después del commit del borrado del usuario
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void revocarUsuario(String username) {
+        Instant ahora = Instant.now();
+        revokedTokenRepository.save(new RevokedToken(null, username, ahora, ahora.plus(duracionToken)));
+        usuariosRevocados.merge(username, ahora, (anterior, nuevo) -> anterior.isAfter(nuevo) ? anterior : nuevo);
+    }
+
+    /**
+     * O(1) y sin E/S: se llama en cada validación, después de verificar firma y expiración.
+     */
+    public boolean estaRevocado(Claims claims) {
+        if (claims.getId() != null && tokensRevocados.containsKey(claims.getId())) {
+            return true;
+        }
+        Instant revocadoEn = usuariosRevocados.get(claims.getSubject());
+        Date emitido = claims.getIssuedAt();
+        return revocadoEn != null && (emitido == null || emitido.toInstant().isBefore(revocadoEn));
+    }
+
+    /**
+     * Revocaciones vigentes registradas desde "desde" (todas si es null): instantánea
+     * inicial y deltas para los servicios de recursos. Sin usernames: las revocaciones
+     * por usuario van identificadas por huellaUsuario().
+     */
+    public RevocationsResponse revocacionesDesde(Instant desde) {
+        Instant ahora = Instant.now();
+        return new RevocationsResponse(ahora, filasDesde(desde, ahora).stream()
+                .map(fila -> fila.getJti() != null
+                        ? RevocationsResponse.Revocation.deToken(fila.getJti(), fila.getExpiresAt())
+                        : RevocationsResponse.Revocation.deUsuario(
+                                huellaUsuario(fila.getUsername()), fila.getRevokedAt(), fila.getExpiresAt()))
+                .toList());
+    }
+
+    /**
+     * Trae las revocaciones hechas por otras instancias. Pide desde la última vez menos
+     * un solape, por las transacciones que confirmaron tarde; aplicar dos veces no importa.
+     */
+    @Scheduled(fixedDelayString = "${auth.jwt.revocaciones.intervalo-ms:5000}")
+    public void sincronizar() {
+        Instant ahora = Instant.now();
+        Instant desde = sincronizadoHasta != null ? sincronizadoHasta.minus(solape) : null;
+
+        for (RevokedToken fila : filasDesde(desde, ahora)) {
+            if (fila.getJti() != null) {
+                tokensRevocados.put(fila.getJti(), fila.getExpiresAt());
+            } else {
+                usuariosRevocados.merge(fila.getUsername(), fila.getRevokedAt(),
+                        (anterior, nuevo) -> anterior.isAfter(nuevo) ? anterior : nuevo);
+            }
+        }
+        sincronizadoHasta = ahora;
+    }
+
+    /**
+     * SHA-256 (hex) del username. Los servicios de recursos calculan la misma huella con el
+     * subject del token, así /auth/revocations no publica qué usuarios se han revocado.
+     */
+    public static String huellaUsuario(String username) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(username.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    // Una sola consulta: el repositorio ya abre su transacción de lectura
+    private List<RevokedToken> filasDesde(Instant desde, Instant ahora) {
+        return desde == null
+                ? revokedTokenRepository.findByExpiresAtAfter(ahora)
+                : revokedTokenRepository.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(desde, ahora);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.jwt.purga-revocaciones-ms:60000}")
+    @Transactional
+    public void purgar() {
+        Instant ahora = Instant.now();
+        tokensRevocados.values().removeIf(expiracion -> expiracion.isBefore(ahora));
+        // Pasada la vida de un token, ya no queda ninguno emitido antes de la revocación
+        usuariosRevocados.values().removeIf(revocadoEn -> revocadoEn.plus(duracionToken).isBefore(ahora));
+        revokedTokenRepository.deleteByExpiresAtBefore(ahora);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.auth_service.security;
+
+import com.example.auth_service.model.Role;
+import com.example.auth_service.model.User;
+import com.example.auth_service.service.UserCacheService;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Listener JPA de User y Role: invalida la caché de usuarios cuando cambian.
+ * Hibernate lo obtiene de Spring, así que puede recibir dependencias por constructor.
+ *
+ * - Usuario modificado o borrado: se invalida solo ese usuario.
+ * - Usuario borrado: además se revocan sus tokens (TokenRevocationService), porque
+ *   /auth/validate ya no comprueba en la base de datos que el usuario exista.
+ * - Rol modificado o borrado: afecta a todos los que lo tienen, se vacía la caché.
+ *
+ * Cambiar solo la colección de roles de un usuario no siempre dispara @PostUpdate;
+ * quien lo haga debe llamar a UserCacheService.evict(username).
+ */
+@Component
+public class UserCacheInvalidationListener {
+
+    private final UserCacheService userCacheService;
+    private final TokenRevocationService tokenRevocationService;
+
+    // @Lazy: el listener se crea junto con el EntityManagerFactory, antes que los servicios
+    public UserCacheInvalidationListener(@Lazy UserCacheService userCacheService,
+                                         @Lazy TokenRevocationService tokenRevocationService) {
+        this.userCacheService = userCacheService;
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
+    @PostRemove
+    public void alBorrar(Object entidad) {
+        alCambiar(entidad);
+        if (entidad instanceof User user) {
+            // Tras el commit: dentro de un callback JPA no se puede usar el EntityManager
+            String username = user.getUsername();
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        tokenRevocationService.revocarUsuario(username);
+                    }
+                });
+            } else {
+                tokenRevocationService.revocarUsuario(username);
+            }
+        }
+    }
+
+    @PostUpdate
+    public void alCambiar(Object entidad) {
+        if (entidad instanceof User user) {
+            userCacheService.evict(user.getUsername());
+        } else if (entidad instanceof Role) {
+            userCacheService.evictAll();
+        }
+    }
+}
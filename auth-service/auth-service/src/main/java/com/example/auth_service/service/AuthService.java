@@ -103,8 +103,11 @@ package com.example.auth_service.service;
 
 import com.example.auth_service.dto.AuthResponse;
 import com.example.auth_service.dto.LoginRequest;
+import com.example.auth_service.dto.RefreshRequest;
 import com.example.auth_service.dto.RegisterRequest;
 import com.example.auth_service.exception.InvalidCredentialsException;
+import com.example.auth_service.exception.InvalidTokenException;
+import com.example.auth_service.exception.ServiceBusyException;
 import com.example.auth_service.exception.UserAlreadyExistsException;
 
 import com.example.auth_service.model.Role;
@@ -112,9 +115,13 @@ import com.example.auth_service.model.User;
 import com.example.auth_service.repository.RoleRepository;
 import com.example.auth_service.repository.UserRepository;
 import com.example.auth_service.security.JwtService;
+import com.example.auth_service.security.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -261,6 +268,18 @@ public class AuthService {
     @Autowired
     private JwtService jwtService;
 
+    /**
+     * Refresh tokens rotativos: alargan la sesión sin access tokens de larga duración
+     */
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    /**
+     * Revocación de access tokens (logout), en memoria y repartida a los demás servicios
+     */
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     /**
      * Manager de Spring Security que se encarga de la autenticación
      * Verifica credenciales contra la base de datos
@@ -300,14 +319,22 @@ public class AuthService {
             // Este token será usado en requests posteriores para mantener la sesión
             String token = jwtService.generateToken(user);
 
-            // PASO 4: Crear respuesta exitosa con token y mensaje personalizado
-            return new AuthResponse(token, user.getUsername(),
+            // PASO 4: Crear respuesta exitosa con token, refresh token y mensaje personalizado
+            AuthResponse response = new AuthResponse(token, user.getUsername(),
                     "¡Bienvenido de nuevo, " + user.getUsername() + "! Has iniciado sesión exitosamente.");
+            response.setRefreshToken(refreshTokenService.emitir(user.getUsername()));
+            return response;
 
         } catch (BadCredentialsException e) {
             // MANEJO DE ERROR: Credenciales incorrectas
             // Convertimos la excepción técnica en una más amigable para el usuario
             throw new InvalidCredentialsException("Credenciales inválidas. Por favor, verifica tu nombre de usuario y contraseña.");
+        } catch (InternalAuthenticationServiceException e) {
+            // Pool de hashing saturado durante la búsqueda del usuario: Spring Security lo envuelve
+            if (e.getCause() instanceof ServiceBusyException busy) {
+                throw busy;
+            }
+            throw e;
         }
     }
 
@@ -372,11 +399,57 @@ public class AuthService {
 
         // PASO 7: CREAR RESPUESTA EXITOSA
         AuthResponse response = new AuthResponse(token, user.getUsername());
+        response.setRefreshToken(refreshTokenService.emitir(user.getUsername()));
         response.setMessage("¡Registro exitoso! Bienvenido, " + user.getUsername() + ".");
 
         return response;
     }
 
+    // ==================== MÉTODO REFRESH ====================
+
+    /**
+     * Canjea un refresh token por un access token nuevo y el siguiente refresh token
+     *
+     * @throws InvalidTokenException si el refresh token no existe, expiró o ya se usó
+     */
+    public AuthResponse refresh(RefreshRequest request) {
+        if (request.getRefreshToken() == null || request.getRefreshToken().isEmpty()) {
+            throw new InvalidTokenException("El refresh token no puede estar vacío");
+        }
+
+        // PASO 1: Rotar (un solo uso; reutilizarlo invalida toda la sesión)
+        RefreshTokenService.Rotacion rotacion = refreshTokenService.rotar(request.getRefreshToken());
+
+        // PASO 2: Nuevo access token de vida corta para el mismo usuario
+        User user = userRepository.findByUsername(rotacion.username())
+                .orElseThrow(() -> new InvalidTokenException("Usuario no encontrado: " + rotacion.username()));
+
+        AuthResponse response = new AuthResponse(jwtService.generateToken(user), user.getUsername());
+        response.setRefreshToken(rotacion.refreshToken());
+        return response;
+    }
+
+    // ==================== MÉTODO LOGOUT ====================
+
+    /**
+     * Cierra la sesión: invalida la familia del refresh token y revoca el access token actual
+     * (si llega y sigue vigente) en todos los servicios.
+     */
+    public void logout(RefreshRequest request, String accessToken) {
+        if (request != null && request.getRefreshToken() != null) {
+            refreshTokenService.revocar(request.getRefreshToken());
+        }
+
+        if (accessToken != null) {
+            try {
+                Claims claims = jwtService.extractAllClaims(accessToken);
+                tokenRevocationService.revocarToken(claims.getId(), claims.getExpiration().toInstant());
+            } catch (JwtException e) {
+                // Token ya expirado o inválido: no hace falta revocarlo
+            }
+        }
+    }
+
     // ==================== MÉTODOS DE VALIDACIÓN PRIVADOS ====================
 
     /**
@@ -0,0 +1,107 @@
+package com.example.auth_service.service;
+
+import com.example.auth_service.exception.InvalidTokenException;
+import com.example.auth_service.model.RefreshToken;
+import com.example.auth_service.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Refresh tokens opacos y rotativos.
+ *
+ * - El login emite uno y abre una familia (sesión).
+ * - /auth/refresh lo canjea una sola vez por un access token nuevo y otro refresh token.
+ * - Canjear uno ya usado invalida toda la familia: el robado y el legítimo dejan de valer.
+ * - /auth/logout invalida la familia.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final SecureRandom random = new SecureRandom();
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration duracion;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${auth.jwt.duracion-refresh:14d}") Duration duracion) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.duracion = duracion;
+    }
+
+    @Transactional
+    public String emitir(String username) {
+        return crear(username, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Marca el refresh token como usado y emite el siguiente de la misma familia.
+     * noRollbackFor: la invalidación de la familia por reutilización debe quedar guardada.
+     */
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public Rotacion rotar(String token) {
+        Instant ahora = Instant.now();
+        String hash = hash(token);
+        RefreshToken actual = refreshTokenRepository.findById(hash)
+                .orElseThrow(() -> new InvalidTokenException("Refresh token inválido"));
+
+        if (actual.getExpiresAt().isBefore(ahora)) {
+            throw new InvalidTokenException("Refresh token expirado");
+        }
+        if (refreshTokenRepository.markUsed(hash, ahora) == 0) {
+            log.warn("Refresh token reutilizado para {}: se invalida la sesión {}", actual.getUsername(), actual.getFamily());
+            refreshTokenRepository.markFamilyUsed(actual.getFamily(), ahora);
+            throw new InvalidTokenException("Refresh token ya usado; inicia sesión de nuevo");
+        }
+
+        return new Rotacion(actual.getUsername(), crear(actual.getUsername(), actual.getFamily()));
+    }
+
+    @Transactional
+    public void revocar(String token) {
+        refreshTokenRepository.findById(hash(token))
+                .ifPresent(actual -> refreshTokenRepository.markFamilyUsed(actual.getFamily(), Instant.now()));
+    }
+
+    @Scheduled(fixedDelayString = "${auth.jwt.purga-refresh-ms:3600000}")
+    @Transactional
+    public void purgar() {
+        refreshTokenRepository.deleteByExpiresAtBefore(Instant.now());
+    }
+
+    private String crear(String username, String familia) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        Instant ahora = Instant.now();
+        refreshTokenRepository.save(new RefreshToken(hash(token), username, familia, ahora, ahora.plus(duracion)));
+        return token;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    public record Rotacion(String username, String refreshToken) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.auth_service.service;
+
+import com.example.auth_service.config.CacheConfig;
+import com.example.auth_service.model.User;
+import com.example.auth_service.repository.UserRepository;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+/**
+ * Usuarios (con sus roles) para autenticar peticiones con JWT sin ir a MySQL en cada una.
+ *
+ * La caché es acotada y con TTL (spring.cache.caffeine.spec). Se invalida al modificar
+ * o borrar un usuario o un rol (ver UserCacheInvalidationListener); el TTL limita lo que
+ * puede durar un cambio hecho por fuera de JPA. El login NO usa esta caché: la contraseña
+ * se comprueba siempre contra la base de datos.
+ */
+@Service
+public class UserCacheService {
+
+    private final UserRepository userRepository;
+
+    public UserCacheService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Usuario con sus roles, o null si no existe (los usuarios inexistentes no se cachean).
+     */
+    @Cacheable(cacheNames = CacheConfig.USUARIOS, key = "#username", unless = "#result == null")
+    public User findByUsername(String username) {
+        return userRepository.findByUsername(username).orElse(null);
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.USUARIOS, key = "#username")
+    public void evict(String username) {
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.USUARIOS, allEntries = true)
+    public void evictAll() {
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.auth_service.security;
+
+import com.example.auth_service.model.User;
+import com.example.auth_service.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Benchmark JMH del coste por petición de validar un JWT.
+ *
+ * - parserPorPeticion / parserCompartido: lo que hacen los JwtAuthenticationFilter de
+ *   To-do-service y analytics_service antes y después de preconstruir la clave y el parser.
+ * - validacionAnterior / validacionActual: el camino de auth-service (extractUsername +
+ *   isTokenValid), con tres parseos y clave nueva en cada uno frente a un solo parseo.
+ *
+ * Tokens RS256 como los que firma JwtKeyService; "clave nueva" es reconstruir la clave
+ * pública a partir de sus bytes en cada parseo.
+ *
+ * No se ejecuta en el build normal:
+ *   mvn test -Dbenchmark=true -Dtest=JwtParsingBenchmarkTest
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtParsingBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtParsingBenchmarkTest.class);
+
+    private byte[] clavePublicaCodificada;
+    private JwtService jwtService;
+    private User usuario;
+    private String token;
+
+    @Setup
+    public void preparar() throws GeneralSecurityException {
+        KeyPairGenerator generador = KeyPairGenerator.getInstance("RSA");
+        generador.initialize(2048);
+        KeyPair par = generador.generateKeyPair();
+        clavePublicaCodificada = par.getPublic().getEncoded();
+
+        JwtKeyService jwtKeyService = mock(JwtKeyService.class);
+        when(jwtKeyService.claveFirma())
+                .thenReturn(new JwtKeyService.ClaveFirma("benchmark", par.getPrivate(), Instant.EPOCH));
+        when(jwtKeyService.clavePublica(anyString())).thenReturn((RSAPublicKey) par.getPublic());
+
+        jwtService = new JwtService(jwtKeyService, new TokenRevocationService(
+                mock(RevokedTokenRepository.class), Duration.ofMinutes(15), Duration.ofSeconds(10)),
+                Duration.ofMinutes(15));
+        usuario = new User(1L, "benchmark", "x", new HashSet<>());
+        token = jwtService.generateToken(usuario);
+    }
+
+    @Benchmark
+    public String parserPorPeticion() throws GeneralSecurityException {
+        return parsearConClaveNueva().getSubject();
+    }
+
+    @Benchmark
+    public String parserCompartido() {
+        return jwtService.extractAllClaims(token).getSubject();
+    }
+
+    @Benchmark
+    public boolean validacionAnterior() throws GeneralSecurityException {
+        String username = parserPorPeticion();
+        Claims claims = parsearConClaveNueva();
+        Date expiracion = parsearConClaveNueva().getExpiration();
+        return username != null
+                && claims.getSubject().equals(usuario.getUsername())
+                && !expiracion.before(new Date());
+    }
+
+    @Benchmark
+    public boolean validacionActual() {
+        Claims claims = jwtService.extractAllClaims(token);
+        return claims.getSubject() != null && jwtService.isTokenValid(claims, usuario);
+    }
+
+    private Claims parsearConClaveNueva() throws GeneralSecurityException {
+        PublicKey clave = KeyFactory.getInstance("RSA").generatePublic(new X509EncodedKeySpec(clavePublicaCodificada));
+        return Jwts.parserBuilder()
+                .setSigningKey(clave)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void elParserCompartidoAhorraCpuPorPeticion() throws RunnerException {
+        // forks(0): se ejecuta en la JVM de surefire, que no expone el classpath a un proceso hijo
+        Collection<RunResult> resultados = new Runner(new OptionsBuilder()
+                .include(JwtParsingBenchmarkTest.class.getSimpleName())
+                .forks(0)
+                .build()).run();
+
+        Map<String, Double> microsPorOperacion = resultados.stream().collect(Collectors.toMap(
+                r -> r.getParams().getBenchmark().substring(r.getParams().getBenchmark().lastIndexOf('.') + 1),
+                r -> r.getPrimaryResult().getScore()));
+
+        microsPorOperacion.forEach((benchmark, micros) ->
+                log.info("{}: {} us/op", benchmark, String.format("%.2f", micros)));
+        log.info("Ahorro por petición en los filtros: {} us", String.format("%.2f",
+                microsPorOperacion.get("parserPorPeticion") - microsPorOperacion.get("parserCompartido")));
+        log.info("Ahorro por validación en auth-service: {} us", String.format("%.2f",
+                microsPorOperacion.get("validacionAnterior") - microsPorOperacion.get("validacionActual")));
+
+        assertTrue(microsPorOperacion.get("parserCompartido") < microsPorOperacion.get("parserPorPeticion"));
+        assertTrue(microsPorOperacion.get("validacionActual") < microsPorOperacion.get("validacionAnterior"));
+    }
+}
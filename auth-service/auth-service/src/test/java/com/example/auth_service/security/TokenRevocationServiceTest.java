@@ -0,0 +1,20 @@
+package com.example.auth_service.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * To-do-service y analytics_service calculan la misma huella en RevocacionesTokens;
+ * sus RevocacionesTokensTest comprueban los mismos valores.
+ */
+class TokenRevocationServiceTest {
+
+    @Test
+    void huellaUsuarioEsSha256HexDelUsernameEnUtf8() {
+        assertEquals("2bd806c97f0e00af1a1fc3328fa763a9269723c8db8fac4f93af71db186d6e90",
+                TokenRevocationService.huellaUsuario("alice"));
+        assertEquals("d994e1d001886fe5b45b1267bd1fa2b752ac50742579bd3dad7b2a2aa0ed6866",
+                TokenRevocationService.huellaUsuario("jos\u00e9"));
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.demoApiGateway;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Verificación local de los JWT con las claves públicas de auth-service (JWKS).
+ * El decoder guarda el JWK Set en memoria y lo vuelve a descargar cuando llega un "kid" nuevo.
+ * Descarga el JWKS por Eureka (http://auth-service/...), como To-do-service y analytics-service.
+ */
+@Configuration
+public class JwtConfig {
+
+    @Bean
+    public ReactiveJwtDecoder jwtDecoder(@Value("${jwt.jwks-uri}") String jwksUri,
+                                         WebClient.Builder webClientBuilder,
+                                         ReactorLoadBalancerExchangeFilterFunction balanceador) {
+        return NimbusReactiveJwtDecoder.withJwkSetUri(jwksUri)
+                .webClient(webClientBuilder.filter(balanceador).build())
+                .build();
+    }
+}
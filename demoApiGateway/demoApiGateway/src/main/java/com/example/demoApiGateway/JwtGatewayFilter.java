@@ -0,0 +1,73 @@
+package com.example.demoApiGateway;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * Rechaza en el gateway las peticiones con un JWT inválido o caducado (401).
+ *
+ * La firma se verifica en local con las claves públicas de auth-service (ver JwtConfig),
+ * sin llamar a /auth/validate.
+ * Las peticiones sin token pasan tal cual (login, registro, endpoints públicos);
+ * cada servicio sigue decidiendo qué rutas exigen autenticación.
+ *
+ * Las rutas de auth-service (jwt.rutas-sin-verificar) no se verifican: con access tokens de
+ * 15 minutos los clientes llaman a /auth/refresh y /auth/logout con el token ya caducado en
+ * Authorization, y auth-service es quien debe atenderlos (logout invalida la familia de
+ * refresh tokens aunque el access token haya caducado).
+ */
+@Component
+public class JwtGatewayFilter implements GlobalFilter, Ordered {
+
+    private final ReactiveJwtDecoder jwtDecoder;
+    private final Set<String> rutasSinVerificar;
+
+    public JwtGatewayFilter(ReactiveJwtDecoder jwtDecoder,
+                            @Value("${jwt.rutas-sin-verificar:auth-service,auth-with-circuit-breaker}")
+                            Set<String> rutasSinVerificar) {
+        this.jwtDecoder = jwtDecoder;
+        this.rutasSinVerificar = rutasSinVerificar;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        // Los filtros globales se ejecutan con la ruta ya resuelta
+        Route ruta = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (ruta != null && rutasSinVerificar.contains(ruta.getId())) {
+            return chain.filter(exchange);
+        }
+
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+
+        return jwtDecoder.decode(authHeader.substring(7))
+                .map(jwt -> true)
+                .onErrorResume(JwtException.class, e -> Mono.just(false))
+                .flatMap(valido -> valido ? chain.filter(exchange) : rechazar(exchange));
+    }
+
+    private Mono<Void> rechazar(ServerWebExchange exchange) {
+        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+        return exchange.getResponse().setComplete();
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
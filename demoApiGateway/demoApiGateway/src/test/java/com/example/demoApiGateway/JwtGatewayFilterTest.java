@@ -0,0 +1,83 @@
+package com.example.demoApiGateway;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtGatewayFilterTest {
+
+    private static final String TOKEN_CADUCADO = "Bearer eyJhbGciOiJSUzI1NiJ9.caducado.firma";
+
+    // Como NimbusReactiveJwtDecoder con un token caducado
+    private final ReactiveJwtDecoder decoder = token -> Mono.error(new BadJwtException("Jwt expired"));
+
+    private final JwtGatewayFilter filtro =
+            new JwtGatewayFilter(decoder, Set.of("auth-service", "auth-with-circuit-breaker"));
+
+    @Test
+    void logoutConAccessTokenCaducadoLlegaAAuthService() {
+        MockServerWebExchange exchange = peticion("/service-b/auth/logout", "auth-service");
+        AtomicBoolean enrutada = new AtomicBoolean();
+
+        filtro.filter(exchange, enrutar(enrutada)).block();
+
+        assertTrue(enrutada.get());
+        assertNull(exchange.getResponse().getStatusCode());
+    }
+
+    @Test
+    void refreshConAccessTokenCaducadoLlegaAAuthService() {
+        MockServerWebExchange exchange = peticion("/auth-cb/auth/refresh", "auth-with-circuit-breaker");
+        AtomicBoolean enrutada = new AtomicBoolean();
+
+        filtro.filter(exchange, enrutar(enrutada)).block();
+
+        assertTrue(enrutada.get());
+    }
+
+    @Test
+    void tokenCaducadoEnOtrasRutasDa401() {
+        MockServerWebExchange exchange = peticion("/service-a/api/tareas", "service-a");
+        AtomicBoolean enrutada = new AtomicBoolean();
+
+        filtro.filter(exchange, enrutar(enrutada)).block();
+
+        assertFalse(enrutada.get());
+        assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+    }
+
+    private static MockServerWebExchange peticion(String path, String idRuta) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post(path)
+                .header(HttpHeaders.AUTHORIZATION, TOKEN_CADUCADO));
+        // Lo que deja RoutePredicateHandlerMapping antes de los filtros globales
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, Route.async()
+                .id(idRuta)
+                .uri("http://localhost")
+                .predicate(e -> true)
+                .build());
+        return exchange;
+    }
+
+    private static GatewayFilterChain enrutar(AtomicBoolean enrutada) {
+        return exchange -> {
+            enrutada.set(true);
+            return Mono.empty();
+        };
+    }
+}